@@ -98,6 +98,30 @@ tasks.withType(org.gradle.jvm.tasks.Jar::class) {
     }
 }
 
+// Mixin index: lists the mixin classes at build time so AutoDiscoveryMixinPlugin does not have to scan the jar
+val mixinIndexDir = layout.buildDirectory.dir("generated/mixinIndex")
+val generateMixinIndex by tasks.registering {
+    val classesDir = sourceSets.main.get().java.classesDirectory
+    dependsOn(tasks.compileJava, tasks.processResources)
+    inputs.dir(classesDir)
+    outputs.dir(mixinIndexDir)
+    doLast {
+        val mixinRoot = classesDir.get().asFile.resolve(mixinGroup.replace('.', '/'))
+        val mixins = mixinRoot.walkTopDown()
+            .filter { it.isFile && it.name.endsWith(".class") }
+            .map { it.relativeTo(mixinRoot).invariantSeparatorsPath.removeSuffix(".class").replace('/', '.') }
+            .sorted()
+            .toList()
+        val index = mixinIndexDir.get().file("META-INF/mixin-index/$mixinGroup.txt").asFile
+        index.parentFile.mkdirs()
+        index.writeText(mixins.joinToString("\n", postfix = "\n"))
+    }
+}
+
+sourceSets.main {
+    output.dir(mapOf("builtBy" to generateMixinIndex), mixinIndexDir)
+}
+
 tasks.processResources {
     inputs.property("version", project.version)
     inputs.property("mcversion", mcVersion)
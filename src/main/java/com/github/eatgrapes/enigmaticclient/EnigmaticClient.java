@@ -1,13 +1,40 @@
 package com.github.eatgrapes.enigmaticclient;
 
 import com.github.eatgrapes.enigmaticclient.config.ConfigManager;
+import com.github.eatgrapes.enigmaticclient.config.OptimizeConfig;
+import com.github.eatgrapes.enigmaticclient.config.ProfileManager;
+import com.github.eatgrapes.enigmaticclient.init.MixinApplyStats;
+import com.github.eatgrapes.enigmaticclient.init.MixinSwitches;
+import com.github.eatgrapes.enigmaticclient.module.KeybindManager;
 import com.github.eatgrapes.enigmaticclient.module.Module;
 import com.github.eatgrapes.enigmaticclient.module.ModuleManager;
+import com.github.eatgrapes.enigmaticclient.module.ModuleProfiler;
+import com.github.eatgrapes.enigmaticclient.module.settings.KeybindSetting;
+import com.github.eatgrapes.enigmaticclient.module.settings.Setting;
+import com.github.eatgrapes.enigmaticclient.optimize.ChunkDecoder;
+import com.github.eatgrapes.enigmaticclient.optimize.CullingEngine;
+import com.github.eatgrapes.enigmaticclient.optimize.LightingCache;
+import com.github.eatgrapes.enigmaticclient.optimize.SpriteDiskCache;
+import com.github.eatgrapes.enigmaticclient.optimize.TextureResidencyManager;
+import com.github.eatgrapes.enigmaticclient.optimize.MainThreadQueue;
+import com.github.eatgrapes.enigmaticclient.optimize.RenderDistanceController;
+import com.github.eatgrapes.enigmaticclient.optimize.OptimizeManager;
+import com.github.eatgrapes.enigmaticclient.optimize.TaskPriority;
+import com.github.eatgrapes.enigmaticclient.optimize.TaskScheduler;
+import com.github.eatgrapes.enigmaticclient.network.NetworkMetrics;
+import com.github.eatgrapes.enigmaticclient.network.PacketInterceptors;
+import com.github.eatgrapes.enigmaticclient.ui.AnimationManager;
 import com.github.eatgrapes.enigmaticclient.ui.ClickguiScreen;
+import com.github.eatgrapes.enigmaticclient.ui.GlyphAtlas;
+import com.github.eatgrapes.enigmaticclient.ui.HudCompositor;
+import com.github.eatgrapes.enigmaticclient.util.AsyncLogger;
+import com.github.eatgrapes.enigmaticclient.util.LatencyHistogram;
 import net.minecraft.client.Minecraft;
-import net.minecraft.client.gui.GuiMainMenu;
+import net.minecraft.network.play.client.C01PacketChatMessage;
 import net.minecraft.util.ChatComponentText;
 import net.minecraft.util.EnumChatFormatting;
+import net.minecraftforge.client.event.RenderGameOverlayEvent;
+import net.minecraftforge.client.event.RenderWorldLastEvent;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
@@ -16,6 +43,9 @@ import net.minecraftforge.fml.common.gameevent.InputEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
 import org.lwjgl.input.Keyboard;
 
+import java.io.IOException;
+import java.util.List;
+
 @Mod(
     modid = "enigmaticclient",
     version = "1.0",
@@ -31,6 +61,8 @@ public class EnigmaticClient {
     private static final String YELLOW = EnumChatFormatting.YELLOW.toString();
     private static final String GREEN = EnumChatFormatting.GREEN.toString();
 
+    private static final String COMMAND_PREFIX = ".eni";
+
     // Message prefix
     private static final String MOD_PREFIX = WHITE + "[" + PURPLE + "Enigmatic" + WHITE + "] ";
     private static final String UNKNOWN_CMD = MOD_PREFIX + WHITE + "Unknown command, use " + PURPLE + ".eni help";
@@ -39,17 +71,34 @@ public class EnigmaticClient {
         PURPLE + ".eni list" + WHITE + " - List modules\n" +
         PURPLE + ".eni enable <module>" + WHITE + " - Enable module\n" +
         PURPLE + ".eni disable <module>" + WHITE + " - Disable module\n" +
+        PURPLE + ".eni set <module> [setting value]" + WHITE + " - Show or change module settings\n" +
+        PURPLE + ".eni profiles [use|delete|export|import] [name]" + WHITE + " - Manage settings profiles\n" +
+        PURPLE + ".eni bind [module|clickgui] [key|none]" + WHITE + " - Show or change keybinds\n" +
+        PURPLE + ".eni tasks [reset]" + WHITE + " - Show background task queues\n" +
+        PURPLE + ".eni render [culling|adaptive on|off, distance|budget|fps <n>, bounds <min> <max>]" + WHITE + " - Show or tune rendering\n" +
+        PURPLE + ".eni cache [textures on|off, budget <mb>]" + WHITE + " - Show cache stats or tune texture residency\n" +
+        PURPLE + ".eni mixins [mixin on|off]" + WHITE + " - Show or switch mixins (next launch)\n" +
+        PURPLE + ".eni net [reset]" + WHITE + " - Show network latency and throughput\n" +
+        PURPLE + ".eni profile [on|off|reset]" + WHITE + " - Profile module hooks\n" +
         PURPLE + ".eni stop" + WHITE + " - " + RED + "Force exit client";
 
     // State tracking variables
     private static boolean wasInWorld = false;
-    private static boolean hasSavedOnWorldExit = false;
-    private static long lastSaveTime = 0; // Cooldown for saving
+
+    private static OptimizeManager optimizeManager;
 
     @Mod.EventHandler
     public void init(FMLInitializationEvent event) {
         ModuleManager.getInstance().initializeModules();
+        KeybindManager.getInstance().register("clickgui", Keyboard.KEY_RSHIFT,
+            () -> Minecraft.getMinecraft().displayGuiScreen(new ClickguiScreen()));
         ConfigManager.loadConfig();
+        HudCompositor.getInstance().register(ModuleProfiler.getOverlay());
+        // Bake the client font off the client thread before the first GUI needs it
+        TaskScheduler.getInstance().submit(TaskPriority.BACKGROUND, "ui:glyphAtlas", GlyphAtlas::getInstance);
+        optimizeManager = new OptimizeManager();
+        PacketInterceptors.outbound().register(C01PacketChatMessage.class, EnigmaticClient::interceptCommand);
+        NetworkMetrics.getInstance().registerInterceptors();
         MinecraftForge.EVENT_BUS.register(this);
         Keyboard.enableRepeatEvents(true); // Enable keyboard repeat for GUI input
         System.out.println("[Enigmatic] Client initialized");
@@ -63,64 +112,69 @@ public class EnigmaticClient {
             Minecraft mc = Minecraft.getMinecraft();
             boolean isInWorld = mc.theWorld != null;
 
-            // 1. Save config when exiting world/server
+            // 1. Save settled config changes in the background
+            ConfigManager.tick();
             if (wasInWorld && !isInWorld) {
-                if (!hasSavedOnWorldExit) {
-                    saveConfigWithCooldown();
-                    System.out.println("[Enigmatic] Config saved (exiting world)");
-                    hasSavedOnWorldExit = true;
-                }
+                // Latency from the previous server would skew the next one
+                NetworkMetrics.getInstance().reset();
             }
+            NetworkMetrics.getInstance().tick(mc);
 
-            // 2. Call onUpdate() for all enabled modules (Critical Fix)
-            ModuleManager.getInstance().getModules().values().stream()
-                .filter(Module::isEnabled)
-                .forEach(Module::onUpdate);
-
-            // 3. Save config when exiting the game
-            if (mc.currentScreen instanceof GuiMainMenu) {
-                if (isGameShuttingDown(mc)) {
-                    saveConfigWithCooldown();
-                    System.out.println("[Enigmatic] Config saved (exiting game)");
-                }
-            }
+            // 2. Call onUpdate() for enabled modules using the tick hook
+            ModuleManager.getInstance().dispatchTick();
 
             wasInWorld = isInWorld;
         }
     }
 
+    @SubscribeEvent
+    public void onRenderTick(TickEvent.RenderTickEvent event) {
+        if (event.phase == TickEvent.Phase.START) {
+            AnimationManager.getInstance().update();
+        }
+    }
+
     @SubscribeEvent
     public void onKeyInput(InputEvent.KeyInputEvent event) {
         Minecraft mc = Minecraft.getMinecraft();
         // Only trigger if in-game world exists (not in main menu)
         if (mc.theWorld != null && Keyboard.getEventKeyState()) {
             int keyCode = Keyboard.getEventKey();
-            
-            // Open ClickGUI on Right Shift press
-            if (keyCode == Keyboard.KEY_RSHIFT) {
-                mc.displayGuiScreen(new ClickguiScreen());
-            }
+
+            // Bound actions (ClickGUI, module toggles) first, then modules listening to keys
+            KeybindManager.getInstance().dispatch(keyCode);
+            ModuleManager.getInstance().dispatchKey(keyCode);
         }
     }
 
+    @SubscribeEvent
+    public void onRenderOverlay(RenderGameOverlayEvent.Post event) {
+        if (event.type == RenderGameOverlayEvent.ElementType.ALL) {
+            HudCompositor.getInstance().render();
+            ModuleManager.getInstance().dispatchRender2D(event.partialTicks);
+        }
+    }
+
+    @SubscribeEvent
+    public void onRenderWorldLast(RenderWorldLastEvent event) {
+        ModuleManager.getInstance().dispatchRender3D(event.partialTicks);
+    }
+
     // ================================== Utility Methods ================================== //
 
-    /**
-     * Saves the config with a 60-second cooldown to prevent spamming.
-     */
-    private static void saveConfigWithCooldown() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastSaveTime > 60000) { // 60-second cooldown
-            ConfigManager.saveConfig();
-            lastSaveTime = currentTime;
-        }
+    public static OptimizeManager getOptimizeManager() {
+        return optimizeManager;
     }
 
     /**
-     * Checks if the game is shutting down.
+     * Outbound chat interceptor: handles {@code .eni} commands locally instead of sending them.
      */
-    private static boolean isGameShuttingDown(Minecraft mc) {
-        return mc.thePlayer == null && mc.theWorld == null && mc.currentScreen == null;
+    private static boolean interceptCommand(C01PacketChatMessage packet) {
+        String message = packet.getMessage();
+        if (!message.regionMatches(true, 0, COMMAND_PREFIX, 0, COMMAND_PREFIX.length())) return false;
+        if (AsyncLogger.isEnabled(AsyncLogger.Level.DEBUG)) AsyncLogger.debug("Blocked command packet: " + message);
+        handleCommand(message);
+        return true;
     }
 
     /**
@@ -130,8 +184,7 @@ public class EnigmaticClient {
         String[] args = command.split("\\s+");
         if (args.length < 1) return;
 
-        String baseCmd = args[0].toLowerCase();
-        if (!baseCmd.equals(".eni")) return;
+        if (!args[0].equalsIgnoreCase(COMMAND_PREFIX)) return;
 
         if (args.length == 1) {
             showMessage(UNKNOWN_CMD);
@@ -150,6 +203,33 @@ public class EnigmaticClient {
             case "disable":
                 handleModuleToggle(args);
                 break;
+            case "set":
+                handleSet(args);
+                break;
+            case "profiles":
+                handleProfiles(args);
+                break;
+            case "bind":
+                handleBind(args);
+                break;
+            case "tasks":
+                showTaskStats(args);
+                break;
+            case "render":
+                handleRender(args);
+                break;
+            case "cache":
+                handleCache(args);
+                break;
+            case "mixins":
+                handleMixins(args);
+                break;
+            case "net":
+                showNetworkStats(args);
+                break;
+            case "profile":
+                handleProfile(args);
+                break;
             case "stop":
                 shutdownClient();
                 break;
@@ -181,6 +261,473 @@ public class EnigmaticClient {
         showMessage(sb.toString());
     }
 
+    private static void handleSet(String[] args) {
+        if (args.length < 3) {
+            showMessage(MOD_PREFIX + RED + "Usage: .eni set <module> [setting value]");
+            return;
+        }
+        Module module = ModuleManager.getInstance().getModule(args[2]).orElse(null);
+        if (module == null) {
+            showMessage(MOD_PREFIX + RED + "Module '" + args[2] + "' not found!");
+            return;
+        }
+
+        if (args.length >= 5) {
+            Setting<?> setting = module.getSetting(args[3]);
+            if (setting == null) {
+                showMessage(MOD_PREFIX + RED + "Setting '" + args[3] + "' not found in " + module.getName() + "!");
+            } else if (setting instanceof KeybindSetting && ((KeybindSetting) setting).getBindId() != null) {
+                // Through the keybind manager, so a key that is taken is reported
+                bindKey(((KeybindSetting) setting).getBindId(), args[4]);
+            } else if (setting.parse(args[4])) {
+                showMessage(MOD_PREFIX + YELLOW + module.getName() + " " + setting.getName()
+                    + WHITE + " set to " + PURPLE + setting.format());
+            } else {
+                showMessage(MOD_PREFIX + RED + "Invalid value '" + args[4] + "' for " + setting.getName());
+            }
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(MOD_PREFIX).append(WHITE).append(module.getName()).append(" settings:");
+        if (module.getSettings().isEmpty()) {
+            sb.append("\n").append(GRAY).append("This module has no settings");
+        }
+        for (Setting<?> setting : module.getSettings()) {
+            sb.append("\n").append(WHITE).append("➤ ")
+              .append(YELLOW).append(setting.getName())
+              .append(WHITE).append(" - ").append(PURPLE).append(setting.format());
+        }
+        showMessage(sb.toString());
+    }
+
+    private static void handleProfiles(String[] args) {
+        ProfileManager profiles = ProfileManager.getInstance();
+        String action = args.length >= 3 ? args[2].toLowerCase() : "list";
+        String name = args.length >= 4 ? args[3] : null;
+        try {
+            switch (action) {
+                case "use":
+                    if (name == null) break;
+                    boolean created = profiles.switchTo(name);
+                    showMessage(MOD_PREFIX + WHITE + "Profile " + YELLOW + name + WHITE
+                        + (created ? " created from the current settings" : " is now active"));
+                    return;
+                case "delete":
+                    if (name == null) break;
+                    showMessage(profiles.delete(name)
+                        ? MOD_PREFIX + WHITE + "Profile " + YELLOW + name + WHITE + " deleted"
+                        : MOD_PREFIX + RED + "Profile '" + name + "' not found or active!");
+                    return;
+                case "export":
+                    showMessage(MOD_PREFIX + WHITE + "Exported to " + PURPLE + profiles.exportActive().getPath());
+                    return;
+                case "import":
+                    if (name == null) break;
+                    int modules = profiles.importInto(name);
+                    showMessage(MOD_PREFIX + WHITE + "Imported settings of " + PURPLE + modules + WHITE + " modules into "
+                        + YELLOW + profiles.getActive());
+                    return;
+                case "list":
+                    StringBuilder sb = new StringBuilder();
+                    sb.append(MOD_PREFIX).append(WHITE).append("Profiles:");
+                    for (String profile : profiles.getProfileNames()) {
+                        sb.append("\n").append(WHITE).append("➤ ").append(YELLOW).append(profile)
+                          .append(profile.equals(profiles.getActive()) ? PURPLE + " (active)" : "");
+                    }
+                    showMessage(sb.toString());
+                    return;
+            }
+        } catch (IOException | RuntimeException e) {
+            showErrorMessage("Profile " + action + " failed: " + e.getMessage());
+            return;
+        }
+        showMessage(MOD_PREFIX + RED + "Usage: .eni profiles [use|delete|export|import] [name]");
+    }
+
+    private static void handleBind(String[] args) {
+        KeybindManager keybinds = KeybindManager.getInstance();
+        if (args.length >= 4) {
+            Module module = ModuleManager.getInstance().getModule(args[2]).orElse(null);
+            String id = module != null ? ModuleManager.bindId(module) : args[2].toLowerCase();
+            if (keybinds.getBinding(id) == null) {
+                showMessage(MOD_PREFIX + RED + "Nothing named '" + args[2] + "' can be bound!");
+                return;
+            }
+            bindKey(id, args[3]);
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(MOD_PREFIX).append(WHITE).append("Keybinds:");
+        for (KeybindManager.Binding binding : keybinds.getBindings()) {
+            sb.append("\n").append(WHITE).append("➤ ").append(YELLOW).append(binding.id)
+              .append(WHITE).append(" - ")
+              .append(binding.getKey() == Keyboard.KEY_NONE ? GRAY : PURPLE).append(KeybindManager.keyName(binding.getKey()));
+        }
+        showMessage(sb.toString());
+    }
+
+    private static void bindKey(String id, String keyName) {
+        int key = keyName.equalsIgnoreCase("none") ? Keyboard.KEY_NONE : Keyboard.getKeyIndex(keyName.toUpperCase());
+        if (key == Keyboard.KEY_NONE && !keyName.equalsIgnoreCase("none")) {
+            showMessage(MOD_PREFIX + RED + "Unknown key '" + keyName + "'");
+            return;
+        }
+        KeybindManager.Binding conflict = KeybindManager.getInstance().bind(id, key);
+        if (conflict != null) {
+            showMessage(MOD_PREFIX + RED + KeybindManager.keyName(key) + " is already bound to " + conflict.id);
+        } else {
+            showMessage(MOD_PREFIX + YELLOW + id + WHITE + " bound to " + PURPLE + KeybindManager.keyName(key));
+        }
+    }
+
+    private static void showTaskStats(String[] args) {
+        TaskScheduler scheduler = TaskScheduler.getInstance();
+        if (args.length >= 3 && args[2].equalsIgnoreCase("reset")) {
+            for (TaskPriority priority : TaskPriority.values()) {
+                scheduler.getStats(priority).resetMaxWaitNanos();
+            }
+            showMessage(MOD_PREFIX + WHITE + "Task queue peak waits reset");
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(MOD_PREFIX).append(WHITE).append("Task queues (")
+          .append(scheduler.getWorkerCount()).append(" workers):\n");
+
+        for (TaskPriority priority : TaskPriority.values()) {
+            TaskScheduler.QueueStats stats = scheduler.getStats(priority);
+            sb.append(WHITE).append("➤ ")
+              .append(YELLOW).append(priority.name())
+              .append(WHITE).append(" - Depth: ").append(PURPLE)
+              .append(scheduler.getQueueDepth(priority)).append("/").append(priority.getCapacity())
+              .append(WHITE).append(", Run: ").append(stats.getExecuted())
+              .append(", Dropped: ").append(stats.getDropped())
+              .append(", Coalesced: ").append(stats.getCoalesced())
+              .append(GRAY).append(String.format(" (wait avg %.2fms, max %.2fms; run avg %.2fms)",
+                  stats.getAverageWaitMillis(),
+                  stats.getMaxWaitNanos() / 1_000_000.0,
+                  stats.getAverageRunMillis()))
+              .append("\n");
+        }
+
+        MainThreadQueue mainThread = MainThreadQueue.getInstance();
+        sb.append(WHITE).append("➤ ")
+          .append(YELLOW).append("MAIN_THREAD")
+          .append(WHITE).append(" - Pending: ").append(PURPLE).append(mainThread.getPending())
+          .append(WHITE).append(", Applied: ").append(mainThread.getApplied())
+          .append(", Over budget: ").append(mainThread.getOverBudgetDrains()).append("\n");
+
+        ChunkDecoder chunks = ChunkDecoder.getInstance();
+        sb.append(WHITE).append("➤ ")
+          .append(YELLOW).append("Chunk decoding")
+          .append(WHITE).append(" - Prepared: ").append(PURPLE).append(chunks.getPrepared())
+          .append(WHITE).append(", Waited: ").append(chunks.getWaited())
+          .append(", On client thread: ").append(chunks.getFallbacks())
+          .append(", Pending: ").append(chunks.getPendingJobs());
+
+        showMessage(sb.toString());
+    }
+
+    private static void handleRender(String[] args) {
+        if (args.length < 3) {
+            showRenderStats();
+            return;
+        }
+        try {
+            switch (args[2].toLowerCase()) {
+                case "culling":
+                    if (args.length == 4 && isOnOff(args[3])) {
+                        boolean enabled = args[3].equalsIgnoreCase("on");
+                        OptimizeConfig.setEntityCulling(enabled);
+                        showMessage(MOD_PREFIX + WHITE + "Entity culling " + (enabled ? GREEN + "enabled" : RED + "disabled"));
+                        return;
+                    }
+                    break;
+                case "distance":
+                    if (args.length == 4) {
+                        OptimizeConfig.setEntityCullDistance(Double.parseDouble(args[3]));
+                        showMessage(MOD_PREFIX + WHITE + "Entity cull distance set to " + PURPLE
+                            + String.format("%.0f", OptimizeConfig.getEntityCullDistance()) + GRAY + " (0 = unlimited)");
+                        return;
+                    }
+                    break;
+                case "budget":
+                    if (args.length == 4) {
+                        OptimizeConfig.setEntityRenderBudget(Integer.parseInt(args[3]));
+                        showMessage(MOD_PREFIX + WHITE + "Entity render budget set to " + PURPLE
+                            + OptimizeConfig.getEntityRenderBudget() + GRAY + " (0 = unlimited)");
+                        return;
+                    }
+                    break;
+                case "adaptive":
+                    if (args.length == 4 && isOnOff(args[3])) {
+                        boolean enabled = args[3].equalsIgnoreCase("on");
+                        OptimizeConfig.setAdaptiveRenderDistance(enabled);
+                        if (!enabled) optimizeManager.getRenderDistanceController().restoreUserDistance();
+                        showMessage(MOD_PREFIX + WHITE + "Adaptive render distance "
+                            + (enabled ? GREEN + "enabled" : RED + "disabled"));
+                        return;
+                    }
+                    break;
+                case "fps":
+                    if (args.length == 4) {
+                        OptimizeConfig.setTargetFps(Integer.parseInt(args[3]));
+                        showMessage(MOD_PREFIX + WHITE + "Adaptive render distance targets " + PURPLE
+                            + OptimizeConfig.getTargetFps() + " FPS");
+                        return;
+                    }
+                    break;
+                case "bounds":
+                    if (args.length == 5) {
+                        OptimizeConfig.setRenderDistanceBounds(Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+                        showMessage(MOD_PREFIX + WHITE + "Adaptive render distance bounds set to " + PURPLE
+                            + OptimizeConfig.getMinRenderDistance() + "-" + OptimizeConfig.getMaxRenderDistance() + " chunks");
+                        return;
+                    }
+                    break;
+            }
+        } catch (NumberFormatException e) {
+            // Falls through to the usage line
+        }
+        showMessage(MOD_PREFIX + RED + "Usage: .eni render [culling|adaptive on|off, distance|budget|fps <n>, bounds <min> <max>]");
+    }
+
+    private static boolean isOnOff(String arg) {
+        return arg.equalsIgnoreCase("on") || arg.equalsIgnoreCase("off");
+    }
+
+    private static void showRenderStats() {
+        CullingEngine culling = CullingEngine.getInstance();
+        StringBuilder sb = new StringBuilder();
+        sb.append(MOD_PREFIX).append(WHITE).append("Rendering:\n");
+        sb.append(WHITE).append("➤ ").append(YELLOW).append("Entity culling")
+          .append(WHITE).append(" - ")
+          .append(OptimizeConfig.isEntityCulling() ? PURPLE + "ENABLED" : GRAY + "DISABLED")
+          .append(WHITE).append(", Tested: ").append(culling.getLastTested())
+          .append(", Visible: ").append(culling.getLastVisible())
+          .append(", Culled: ").append(culling.getLastCulled())
+          .append(GRAY).append(String.format(" (distance %.0f, budget %d)",
+              OptimizeConfig.getEntityCullDistance(), OptimizeConfig.getEntityRenderBudget()));
+
+        RenderDistanceController controller = optimizeManager.getRenderDistanceController();
+        sb.append("\n").append(WHITE).append("➤ ").append(YELLOW).append("Render distance")
+          .append(WHITE).append(" - ")
+          .append(OptimizeConfig.isAdaptiveRenderDistance() ? PURPLE + "ADAPTIVE" : GRAY + "FIXED")
+          .append(WHITE).append(", Current: ").append(Minecraft.getMinecraft().gameSettings.renderDistanceChunks)
+          .append(", Chosen: ").append(controller.getUserDistance())
+          .append(GRAY).append(String.format(" (p50 %.1fms, p95 %.1fms, target %.1fms, bounds %d-%d, streak %+d x%d)",
+              controller.getP50Millis(), controller.getP95Millis(), controller.getTargetMillis(),
+              OptimizeConfig.getMinRenderDistance(), OptimizeConfig.getMaxRenderDistance(),
+              controller.getStreakDirection(), controller.getStreakLength()));
+        for (RenderDistanceController.Decision decision : controller.getHistory()) {
+            long ago = (System.currentTimeMillis() - decision.timeMillis) / 1000;
+            sb.append("\n").append(GRAY).append("  ").append(ago).append("s ago: ")
+              .append(decision.from).append(" -> ").append(decision.to)
+              .append(String.format(" (p50 %.1fms, p95 %.1fms)", decision.p50Millis, decision.p95Millis));
+        }
+
+        showMessage(sb.toString());
+    }
+
+    private static void handleCache(String[] args) {
+        if (args.length < 3) {
+            showCacheStats();
+            return;
+        }
+        try {
+            switch (args[2].toLowerCase()) {
+                case "textures":
+                    if (args.length == 4 && isOnOff(args[3])) {
+                        boolean enabled = args[3].equalsIgnoreCase("on");
+                        OptimizeConfig.setTextureResidency(enabled);
+                        showMessage(MOD_PREFIX + WHITE + "Texture residency " + (enabled ? GREEN + "enabled" : RED + "disabled"));
+                        return;
+                    }
+                    break;
+                case "budget":
+                    if (args.length == 4) {
+                        OptimizeConfig.setTextureBudgetMb(Integer.parseInt(args[3]));
+                        showMessage(MOD_PREFIX + WHITE + "Texture budget set to " + PURPLE
+                            + OptimizeConfig.getTextureBudgetMb() + " MB");
+                        return;
+                    }
+                    break;
+            }
+        } catch (NumberFormatException e) {
+            // Falls through to the usage line
+        }
+        showMessage(MOD_PREFIX + RED + "Usage: .eni cache [textures on|off, budget <mb>]");
+    }
+
+    private static void showCacheStats() {
+        LightingCache lighting = LightingCache.getInstance();
+        long lookups = lighting.getHits() + lighting.getMisses();
+        StringBuilder sb = new StringBuilder();
+        sb.append(MOD_PREFIX).append(WHITE).append("Caches:\n");
+        sb.append(WHITE).append("➤ ").append(YELLOW).append("Lighting")
+          .append(WHITE).append(" - Entries: ").append(PURPLE)
+          .append(lighting.size()).append("/").append(lighting.capacity())
+          .append(WHITE).append(", Hits: ").append(lighting.getHits())
+          .append(", Misses: ").append(lighting.getMisses())
+          .append(", Evictions: ").append(lighting.getEvictions())
+          .append(", Invalidated: ").append(lighting.getInvalidations())
+          .append(GRAY).append(String.format(" (%.1f%% hit rate)",
+              lookups == 0 ? 0.0 : lighting.getHits() * 100.0 / lookups)).append("\n");
+
+        TextureResidencyManager textures = TextureResidencyManager.getInstance();
+        sb.append(WHITE).append("➤ ").append(YELLOW).append("Textures")
+          .append(WHITE).append(" - ")
+          .append(OptimizeConfig.isTextureResidency() ? PURPLE + "ENABLED" : GRAY + "DISABLED")
+          .append(WHITE).append(", Resident: ").append(PURPLE)
+          .append(textures.getResidentBytes() / (1024 * 1024)).append("/")
+          .append(OptimizeConfig.getTextureBudgetMb()).append(" MB")
+          .append(WHITE).append(", Pinned: ").append(textures.getPinnedBytes() / (1024 * 1024)).append(" MB")
+          .append(", Tracked: ").append(textures.getTrackedCount())
+          .append(", Evicted: ").append(textures.getEvictedCount())
+          .append(GRAY).append(" (").append(textures.getEvictions()).append(" evictions, ")
+          .append(textures.getRestores()).append(" restores)").append("\n");
+
+        SpriteDiskCache sprites = SpriteDiskCache.getInstance();
+        sb.append(WHITE).append("➤ ").append(YELLOW).append("Sprite disk cache")
+          .append(WHITE).append(" - Hits: ").append(PURPLE).append(sprites.getHits())
+          .append(WHITE).append(", Misses: ").append(sprites.getMisses())
+          .append(GRAY).append(" (last write ").append(sprites.getLastFileBytes() / 1024).append(" KB)");
+
+        showMessage(sb.toString());
+    }
+
+    private static void handleMixins(String[] args) {
+        if (args.length >= 4) {
+            boolean enable = args[3].equalsIgnoreCase("on");
+            if (!enable && !args[3].equalsIgnoreCase("off")) {
+                showMessage(MOD_PREFIX + RED + "Usage: .eni mixins <mixin> on|off");
+            } else if (MixinSwitches.setEnabled(args[2], enable)) {
+                showMessage(MOD_PREFIX + YELLOW + args[2] + WHITE + " will be "
+                    + (enable ? GREEN + "applied" : RED + "skipped") + WHITE + " from the next launch");
+            } else {
+                showMessage(MOD_PREFIX + RED + "Mixin '" + args[2] + "' not found or cannot be switched!");
+            }
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(MOD_PREFIX).append(WHITE).append("Mixins:\n");
+        MixinSwitches.getSwitches().forEach((name, enabled) -> sb.append(WHITE).append("➤ ")
+            .append(YELLOW).append(name)
+            .append(WHITE).append(" - ").append(enabled ? PURPLE + "ENABLED" : GRAY + "DISABLED").append("\n"));
+
+        List<MixinApplyStats.Target> targets = MixinApplyStats.getTargets();
+        long totalNanos = 0;
+        for (MixinApplyStats.Target target : targets) totalNanos += target.nanos;
+        sb.append(WHITE).append("Slowest targets (").append(targets.size()).append(" total, ")
+          .append(String.format("%.1fms", totalNanos / 1_000_000.0)).append("):");
+        for (int i = 0; i < Math.min(5, targets.size()); i++) {
+            MixinApplyStats.Target target = targets.get(i);
+            sb.append("\n").append(WHITE).append("➤ ")
+              .append(YELLOW).append(target.className.substring(target.className.lastIndexOf('.') + 1))
+              .append(WHITE).append(String.format(" - %.2fms ", target.nanos / 1_000_000.0))
+              .append(GRAY).append("(").append(target.mixins).append(")");
+        }
+
+        showMessage(sb.toString());
+    }
+
+    private static void showNetworkStats(String[] args) {
+        NetworkMetrics metrics = NetworkMetrics.getInstance();
+        if (args.length >= 3 && args[2].equalsIgnoreCase("reset")) {
+            metrics.reset();
+            showMessage(MOD_PREFIX + WHITE + "Network latency histograms reset");
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(MOD_PREFIX).append(WHITE).append("Network:\n");
+        sb.append(WHITE).append("➤ ").append(YELLOW).append("Throughput")
+          .append(WHITE).append(" - In: ").append(PURPLE).append(metrics.getInPacketsPerSecond()).append("/s")
+          .append(WHITE).append(String.format(" (%.1f KB/s)", metrics.getInBytesPerSecond() / 1024.0))
+          .append(", Out: ").append(PURPLE).append(metrics.getOutPacketsPerSecond()).append("/s")
+          .append(WHITE).append(String.format(" (%.1f KB/s)", metrics.getOutBytesPerSecond() / 1024.0))
+          .append(GRAY).append(" (").append(metrics.getInPackets()).append(" in, ")
+          .append(metrics.getOutPackets()).append(" out total)").append("\n");
+        appendLatency(sb, "Round trip", metrics.getRoundTrip());
+        appendLatency(sb, "Server ping", metrics.getServerPing());
+        appendLatency(sb, "Reply delay", metrics.getReplyDelay());
+        appendLatency(sb, "Queue wait", metrics.getQueueWait());
+
+        sb.append(WHITE).append("Busiest packets:");
+        List<NetworkMetrics.PacketStats> packets = metrics.getPacketStats();
+        for (int i = 0; i < Math.min(8, packets.size()); i++) {
+            NetworkMetrics.PacketStats packet = packets.get(i);
+            LatencyHistogram handler = packet.getHandler();
+            sb.append("\n").append(WHITE).append("➤ ")
+              .append(YELLOW).append(packet.name)
+              .append(WHITE).append(" - ").append(packet.getPerSecond()).append("/s")
+              .append(GRAY).append(" (in ").append(packet.getInCount()).append("/").append(packet.getInBytes() / 1024)
+              .append(" KB, out ").append(packet.getOutCount()).append("/").append(packet.getOutBytes() / 1024).append(" KB");
+            if (handler.getCount() > 0) {
+                sb.append(String.format(", handler p50 %.2fms, p99 %.2fms",
+                    handler.percentile(50) / 1000.0, handler.percentile(99) / 1000.0));
+            }
+            sb.append(")");
+        }
+
+        showMessage(sb.toString());
+    }
+
+    private static void appendLatency(StringBuilder sb, String name, LatencyHistogram histogram) {
+        sb.append(WHITE).append("➤ ").append(YELLOW).append(name).append(WHITE).append(" - ");
+        if (histogram.getCount() == 0) {
+            sb.append(GRAY).append("no samples").append("\n");
+            return;
+        }
+        sb.append(String.format("p50 %s%.1fms%s, p99 %s%.1fms", PURPLE, histogram.percentile(50) / 1000.0, WHITE,
+              PURPLE, histogram.percentile(99) / 1000.0))
+          .append(GRAY).append(String.format(" (max %.1fms, %d samples)", histogram.getMax() / 1000.0, histogram.getCount()))
+          .append("\n");
+    }
+
+    private static void handleProfile(String[] args) {
+        if (args.length >= 3) {
+            switch (args[2].toLowerCase()) {
+                case "on":
+                    ModuleProfiler.setSampling(true);
+                    showMessage(MOD_PREFIX + WHITE + "Module profiling " + GREEN + "started");
+                    return;
+                case "off":
+                    ModuleProfiler.setSampling(false);
+                    showMessage(MOD_PREFIX + WHITE + "Module profiling " + RED + "stopped");
+                    return;
+                case "reset":
+                    ModuleProfiler.reset();
+                    showMessage(MOD_PREFIX + WHITE + "Module profile cleared");
+                    return;
+                default:
+                    showMessage(MOD_PREFIX + RED + "Usage: .eni profile [on|off|reset]");
+                    return;
+            }
+        }
+
+        List<ModuleProfiler.Report> reports = ModuleProfiler.getReports();
+        StringBuilder sb = new StringBuilder();
+        sb.append(MOD_PREFIX).append(WHITE).append("Module profile (")
+          .append(ModuleProfiler.isSampling() ? PURPLE + "SAMPLING" : GRAY + "OFF").append(WHITE).append("):");
+        if (reports.isEmpty()) {
+            sb.append("\n").append(GRAY).append("No samples, use .eni profile on");
+        }
+        for (int i = 0; i < Math.min(10, reports.size()); i++) {
+            ModuleProfiler.Report report = reports.get(i);
+            sb.append("\n").append(WHITE).append("➤ ")
+              .append(YELLOW).append(report.module).append(" ").append(report.hook.name())
+              .append(WHITE).append(String.format(" - %s%.2f%%%s of wall time", PURPLE, report.share * 100, WHITE))
+              .append(GRAY).append(String.format(" (avg %.1fus, max %.1fus, %d B/call, %d calls)",
+                  report.meanNanos / 1000.0, report.maxNanos / 1000.0, report.meanBytes, report.calls));
+        }
+
+        showMessage(sb.toString());
+    }
+
     private static void handleModuleToggle(String[] args) {
         if (args.length < 3) {
             showMessage(MOD_PREFIX + RED + "Usage: .eni " + args[1] + " <module>");
@@ -221,7 +768,7 @@ public class EnigmaticClient {
      * Shuts down the client forcefully.
      */
     private static void shutdownClient() {
-        ConfigManager.saveOnShutdown();
+        ConfigManager.flush();
         System.out.println("[Enigmatic] Initiating shutdown...");
 
         ModuleManager.getInstance().getModules().values().stream()
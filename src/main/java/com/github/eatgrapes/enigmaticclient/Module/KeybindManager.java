@@ -0,0 +1,198 @@
+package com.github.eatgrapes.enigmaticclient.module;
+
+import com.github.eatgrapes.enigmaticclient.config.ConfigManager;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.lwjgl.input.Keyboard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Maps keys to actions such as toggling a module or opening the ClickGUI.
+ * <p>
+ * Actions register under a stable id with a default key. A key press is one array lookup in a table from key code
+ * to action, rebuilt whenever a bind changes. A key can only be bound to one action: binding a key that is
+ * already taken is refused and reported at that point, so presses never have to resolve conflicts.
+ * Binds are stored in the "keybinds" section of the config file by key name. A binding may have a listener that
+ * hears every key it ends up with, which is how keybind settings stay in step with their binding. Client thread
+ * only.
+ */
+public final class KeybindManager {
+    private static final KeybindManager INSTANCE = new KeybindManager();
+
+    private final Map<String, Binding> bindings = new LinkedHashMap<>();
+    // Keys read from the config for ids that may register later
+    private final Map<String, Integer> stored = new HashMap<>();
+    private Table table = new Table(new int[Keyboard.KEYBOARD_SIZE], new Binding[0]);
+
+    private KeybindManager() {
+    }
+
+    public static KeybindManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Register an action. A key stored in the config takes precedence over the default.
+     */
+    public Binding register(String id, int defaultKey, Runnable action) {
+        return register(id, defaultKey, action, null);
+    }
+
+    /**
+     * Register an action whose listener is told its key now and after every change.
+     */
+    public Binding register(String id, int defaultKey, Runnable action, IntConsumer listener) {
+        Binding binding = new Binding(id, action, listener);
+        bindings.put(id, binding);
+        Integer storedKey = stored.get(id);
+        int key = storedKey != null ? storedKey : defaultKey;
+        Binding conflict = bind(binding, key);
+        if (conflict != null) {
+            System.out.println("[Enigmatic] Keybind conflict: " + id + " and " + conflict.id + " both use "
+                + Keyboard.getKeyName(key) + ", leaving " + id + " unbound");
+            notifyListener(binding);
+        }
+        return binding;
+    }
+
+    /**
+     * Bind an action to a key, or unbind it with {@link Keyboard#KEY_NONE}.
+     * @return The action already using the key, in which case nothing changed; otherwise null.
+     * @throws IllegalArgumentException If no action has this id.
+     */
+    public Binding bind(String id, int key) {
+        Binding binding = bindings.get(id);
+        if (binding == null) throw new IllegalArgumentException("Unknown keybind " + id);
+        Binding conflict = bind(binding, key);
+        if (conflict == null) ConfigManager.markDirty();
+        return conflict;
+    }
+
+    private Binding bind(Binding binding, int key) {
+        if (key < 0 || key >= Keyboard.KEYBOARD_SIZE) key = Keyboard.KEY_NONE;
+        if (key != Keyboard.KEY_NONE) {
+            for (Binding other : bindings.values()) {
+                if (other != binding && other.key == key) return other;
+            }
+        }
+        binding.key = key;
+        stored.put(binding.id, key);
+        rebuild();
+        notifyListener(binding);
+        return null;
+    }
+
+    private void notifyListener(Binding binding) {
+        if (binding.listener != null) binding.listener.accept(binding.key);
+    }
+
+    private void rebuild() {
+        int[] keys = new int[Keyboard.KEYBOARD_SIZE];
+        List<Binding> actions = new ArrayList<>();
+        for (Binding binding : bindings.values()) {
+            if (binding.key == Keyboard.KEY_NONE) continue;
+            actions.add(binding);
+            keys[binding.key] = actions.size();
+        }
+        table = new Table(keys, actions.toArray(new Binding[0]));
+    }
+
+    /**
+     * Run the action bound to a pressed key, if any.
+     * @return Whether an action ran.
+     */
+    public boolean dispatch(int key) {
+        Table current = table;
+        if (key <= 0 || key >= current.keys.length) return false;
+        int index = current.keys[key];
+        if (index == 0) return false;
+        current.actions[index - 1].action.run();
+        return true;
+    }
+
+    public Binding getBinding(String id) {
+        return bindings.get(id);
+    }
+
+    public Collection<Binding> getBindings() {
+        return Collections.unmodifiableCollection(bindings.values());
+    }
+
+    /**
+     * Read binds from the config section. Conflicting entries are reported and left unbound.
+     */
+    public void readFrom(JsonObject json) {
+        for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
+            String name = entry.getValue().getAsString();
+            int key = name.equalsIgnoreCase("NONE") ? Keyboard.KEY_NONE : Keyboard.getKeyIndex(name);
+            stored.put(entry.getKey(), key);
+        }
+        // Unbind first so binds swapped in the file do not conflict with the current ones
+        for (Binding binding : bindings.values()) {
+            if (stored.containsKey(binding.id)) binding.key = Keyboard.KEY_NONE;
+        }
+        for (Binding binding : bindings.values()) {
+            Integer key = stored.get(binding.id);
+            if (key == null) continue;
+            Binding conflict = bind(binding, key);
+            if (conflict != null) {
+                System.out.println("[Enigmatic] Keybind conflict: " + binding.id + " and " + conflict.id
+                    + " both use " + Keyboard.getKeyName(key) + ", leaving " + binding.id + " unbound");
+                notifyListener(binding);
+            }
+        }
+        rebuild();
+    }
+
+    /**
+     * Write all binds, including unbound ones and ones stored for actions not registered this session.
+     */
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        for (Map.Entry<String, Integer> entry : stored.entrySet()) {
+            json.addProperty(entry.getKey(), keyName(entry.getValue()));
+        }
+        return json;
+    }
+
+    public static String keyName(int key) {
+        return key == Keyboard.KEY_NONE ? "NONE" : Keyboard.getKeyName(key);
+    }
+
+    /**
+     * One registered action and its current key.
+     */
+    public static final class Binding {
+        public final String id;
+        private final Runnable action;
+        private final IntConsumer listener;
+        private int key = Keyboard.KEY_NONE;
+
+        Binding(String id, Runnable action, IntConsumer listener) {
+            this.id = id;
+            this.action = action;
+            this.listener = listener;
+        }
+
+        public int getKey() { return key; }
+    }
+
+    private static final class Table {
+        // Key code -> 1-based index into actions, 0 for unbound
+        final int[] keys;
+        final Binding[] actions;
+
+        Table(int[] keys, Binding[] actions) {
+            this.keys = keys;
+            this.actions = actions;
+        }
+    }
+}
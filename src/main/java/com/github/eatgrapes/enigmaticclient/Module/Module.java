@@ -1,20 +1,83 @@
 package com.github.eatgrapes.enigmaticclient.module;
 
+import com.github.eatgrapes.enigmaticclient.config.ProfileManager;
+import com.github.eatgrapes.enigmaticclient.module.settings.Setting;
+import net.minecraft.network.Packet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Abstract base class for modules.
  * Modules can be enabled/disabled and define their behavior on state changes.
+ * Each module declares the {@link ModuleHook}s it uses; the matching callbacks are only called for those, and
+ * belongs to a {@link ModuleCategory} that groups it in the ClickGUI.
+ * Settings are added in the constructor and get their stored values from the active profile the first time the
+ * module is enabled or its settings are read.
  */
 public abstract class Module {
     private final String name;
+    private final ModuleCategory category;
+    private final Set<ModuleHook> hooks;
+    private final List<Setting<?>> settings = new ArrayList<>();
+    private boolean settingsLoaded;
     private boolean enabled;
 
-    public Module(String name) {
+    public Module(String name, ModuleCategory category, ModuleHook... hooks) {
         this.name = name;
+        this.category = category;
+        EnumSet<ModuleHook> set = EnumSet.noneOf(ModuleHook.class);
+        Collections.addAll(set, hooks);
+        this.hooks = Collections.unmodifiableSet(set);
         this.enabled = false;
     }
 
     public String getName() { return name; }
+    public ModuleCategory getCategory() { return category; }
     public boolean isEnabled() { return enabled; }
+    public Set<ModuleHook> getHooks() { return hooks; }
+
+    /**
+     * Register a setting. Call from the constructor.
+     */
+    protected <S extends Setting<?>> S addSetting(S setting) {
+        settings.add(setting);
+        return setting;
+    }
+
+    /**
+     * All settings, loaded from the active profile if that has not happened yet. Read-only.
+     */
+    public List<Setting<?>> getSettings() {
+        ensureSettingsLoaded();
+        return Collections.unmodifiableList(settings);
+    }
+
+    // Without loading the profile, for registration
+    List<Setting<?>> getDeclaredSettings() {
+        return settings;
+    }
+
+    public Setting<?> getSetting(String name) {
+        for (Setting<?> setting : getSettings()) {
+            if (setting.getName().equalsIgnoreCase(name)) return setting;
+        }
+        return null;
+    }
+
+    public boolean isSettingsLoaded() { return settingsLoaded; }
+
+    /**
+     * Apply the stored values of the active profile once.
+     */
+    public void ensureSettingsLoaded() {
+        if (settingsLoaded) return;
+        settingsLoaded = true;
+        if (!settings.isEmpty()) ProfileManager.getInstance().applyTo(this, settings);
+    }
 
     /**
      * Sets the enabled state of the module.
@@ -24,8 +87,13 @@ public abstract class Module {
     public void setEnabled(boolean enabled) {
         if (this.enabled != enabled) {
             this.enabled = enabled;
-            if (enabled) onEnable();
-            else onDisable();
+            if (enabled) {
+                ensureSettingsLoaded();
+                onEnable();
+            } else {
+                onDisable();
+            }
+            ModuleManager.getInstance().onStateChanged(this);
         }
     }
 
@@ -42,8 +110,35 @@ public abstract class Module {
     public abstract void onDisable();
 
     /**
-     * Called every client tick when the module is enabled.
+     * Called every client tick when the module is enabled and uses {@link ModuleHook#TICK}.
      * Override to define persistent update logic.
      */
     public void onUpdate() {}
-}
\ No newline at end of file
+
+    /**
+     * Called after the in-game overlay is drawn, for {@link ModuleHook#RENDER_2D}.
+     */
+    public void onRender2D(float partialTicks) {}
+
+    /**
+     * Called after the world is drawn, for {@link ModuleHook#RENDER_3D}.
+     */
+    public void onRender3D(float partialTicks) {}
+
+    /**
+     * Called on the network thread for each received packet, for {@link ModuleHook#PACKET_IN}.
+     * @return true to drop the packet.
+     */
+    public boolean onPacketIn(Packet<?> packet) { return false; }
+
+    /**
+     * Called for each sent packet, for {@link ModuleHook#PACKET_OUT}.
+     * @return true to drop the packet.
+     */
+    public boolean onPacketOut(Packet<?> packet) { return false; }
+
+    /**
+     * Called when a key is pressed in game, for {@link ModuleHook#KEY}.
+     */
+    public void onKey(int keyCode) {}
+}
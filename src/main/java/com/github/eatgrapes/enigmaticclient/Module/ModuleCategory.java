@@ -0,0 +1,20 @@
+package com.github.eatgrapes.enigmaticclient.module;
+
+/**
+ * Groups modules in the ClickGUI.
+ */
+public enum ModuleCategory {
+    COMBAT("Combat"),
+    MOVEMENT("Movement"),
+    RENDER("Render"),
+    PLAYER("Player"),
+    MISC("Misc");
+
+    private final String displayName;
+
+    ModuleCategory(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() { return displayName; }
+}
@@ -0,0 +1,19 @@
+package com.github.eatgrapes.enigmaticclient.module;
+
+/**
+ * Client events a module can subscribe to. Only enabled modules that declare a hook are called for it.
+ */
+public enum ModuleHook {
+    /** {@link Module#onUpdate}, every client tick. */
+    TICK,
+    /** {@link Module#onRender2D}, after the in-game overlay is drawn. */
+    RENDER_2D,
+    /** {@link Module#onRender3D}, after the world is drawn. */
+    RENDER_3D,
+    /** {@link Module#onPacketIn}, on the network thread for every received packet. */
+    PACKET_IN,
+    /** {@link Module#onPacketOut}, for every sent packet. */
+    PACKET_OUT,
+    /** {@link Module#onKey}, on key presses in game. */
+    KEY
+}
@@ -1,15 +1,42 @@
 package com.github.eatgrapes.enigmaticclient.module;
 
+import com.github.eatgrapes.enigmaticclient.config.ConfigManager;
 import com.github.eatgrapes.enigmaticclient.module.modules.FullBright;
+import com.github.eatgrapes.enigmaticclient.module.settings.KeybindSetting;
+import com.github.eatgrapes.enigmaticclient.module.settings.Setting;
+import com.github.eatgrapes.enigmaticclient.network.PacketInterceptor;
+import com.github.eatgrapes.enigmaticclient.network.PacketInterceptors;
+import net.minecraft.network.Packet;
+import org.lwjgl.input.Keyboard;
+
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Registry of modules and dispatcher of their hooks.
+ * <p>
+ * For every {@link ModuleHook} an array of the enabled modules using it is kept and replaced whenever a module is
+ * switched, so dispatching is a loop over a plain array: nothing is allocated and modules that are disabled or do
+ * not use the hook cost nothing. The packet interceptors are only registered while some module wants packets.
+ */
 public class ModuleManager {
+    private static final Module[] NONE = new Module[0];
     private static final ModuleManager INSTANCE = new ModuleManager();
+
     private final Map<String, Module> modules = new HashMap<>();
+    // Built on the first search after modules change
+    private volatile ModuleTrie searchIndex;
+    // Enabled subscribers per hook ordinal; inner arrays are never mutated once published
+    private volatile Module[][] subscribers = new Module[ModuleHook.values().length][];
+
+    private final PacketInterceptor<Packet<?>> packetIn = this::dispatchPacketIn;
+    private final PacketInterceptor<Packet<?>> packetOut = this::dispatchPacketOut;
 
     public ModuleManager() {
+        Arrays.fill(subscribers, NONE);
         registerModule(new FullBright());
     }
 
@@ -19,6 +46,29 @@ public class ModuleManager {
 
     public void registerModule(Module module) {
         modules.put(module.getName().toLowerCase(), module);
+        searchIndex = null;
+        if (module.isEnabled()) onStateChanged(module);
+        KeybindManager.getInstance().register(bindId(module), Keyboard.KEY_NONE, () -> {
+            module.setEnabled(!module.isEnabled());
+            ConfigManager.markDirty();
+        });
+        for (Setting<?> setting : module.getDeclaredSettings()) {
+            if (setting instanceof KeybindSetting) ((KeybindSetting) setting).attach(bindId(module, setting));
+        }
+    }
+
+    /**
+     * Id of the keybind that toggles a module.
+     */
+    public static String bindId(Module module) {
+        return "module:" + module.getName().toLowerCase();
+    }
+
+    /**
+     * Id of the keybind behind a module's keybind setting.
+     */
+    public static String bindId(Module module, Setting<?> setting) {
+        return bindId(module) + ":" + setting.getName().toLowerCase().replace(' ', '_');
     }
 
     public boolean moduleExists(String name) {
@@ -29,8 +79,21 @@ public class ModuleManager {
         return Optional.ofNullable(modules.get(name.toLowerCase()));
     }
 
+    /**
+     * All modules by lower-case name. Read-only view.
+     */
     public Map<String, Module> getModules() {
-        return new HashMap<>(modules);
+        return Collections.unmodifiableMap(modules);
+    }
+
+    /**
+     * Modules with a name or word starting with the prefix, sorted by name; all modules for an empty prefix.
+     * The array must not be modified.
+     */
+    public Module[] search(String prefix) {
+        ModuleTrie index = searchIndex;
+        if (index == null) searchIndex = index = ModuleTrie.build(modules.values());
+        return index.search(prefix);
     }
 
     public void initializeModules() {
@@ -38,4 +101,137 @@ public class ModuleManager {
             if (module.isEnabled()) module.onEnable();
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Enabled modules using a hook. The array must not be modified.
+     */
+    public Module[] getSubscribers(ModuleHook hook) {
+        return subscribers[hook.ordinal()];
+    }
+
+    /**
+     * Rebuild the subscriber arrays of the hooks a module uses after it was enabled or disabled.
+     */
+    synchronized void onStateChanged(Module module) {
+        if (module.getHooks().isEmpty()) return;
+        Module[][] next = subscribers.clone();
+        for (ModuleHook hook : module.getHooks()) {
+            next[hook.ordinal()] = modules.values().stream()
+                .filter(m -> m.isEnabled() && m.getHooks().contains(hook))
+                .toArray(Module[]::new);
+        }
+        updatePacketInterceptor(PacketInterceptors.inbound(), packetIn, subscribers, next, ModuleHook.PACKET_IN);
+        updatePacketInterceptor(PacketInterceptors.outbound(), packetOut, subscribers, next, ModuleHook.PACKET_OUT);
+        subscribers = next;
+    }
+
+    private static void updatePacketInterceptor(PacketInterceptors interceptors, PacketInterceptor<Packet<?>> interceptor,
+                                                Module[][] previous, Module[][] next, ModuleHook hook) {
+        boolean had = previous[hook.ordinal()].length > 0;
+        boolean has = next[hook.ordinal()].length > 0;
+        if (has && !had) {
+            interceptors.register(packetClass(), interceptor);
+        } else if (had && !has) {
+            interceptors.unregister(interceptor);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<Packet<?>> packetClass() {
+        return (Class<Packet<?>>) (Class<?>) Packet.class;
+    }
+
+    // ================================== Dispatch ================================== //
+
+    // Each loop reads the profiler flag once; the profiled branch times every call
+
+    public void dispatchTick() {
+        Module[] modules = subscribers[ModuleHook.TICK.ordinal()];
+        if (ModuleProfiler.isSampling()) {
+            for (Module module : modules) {
+                long startNanos = System.nanoTime();
+                long startBytes = ModuleProfiler.allocatedBytes();
+                module.onUpdate();
+                ModuleProfiler.record(module, ModuleHook.TICK, startNanos, startBytes);
+            }
+        } else {
+            for (Module module : modules) {
+                module.onUpdate();
+            }
+        }
+    }
+
+    public void dispatchRender2D(float partialTicks) {
+        Module[] modules = subscribers[ModuleHook.RENDER_2D.ordinal()];
+        if (ModuleProfiler.isSampling()) {
+            for (Module module : modules) {
+                long startNanos = System.nanoTime();
+                long startBytes = ModuleProfiler.allocatedBytes();
+                module.onRender2D(partialTicks);
+                ModuleProfiler.record(module, ModuleHook.RENDER_2D, startNanos, startBytes);
+            }
+        } else {
+            for (Module module : modules) {
+                module.onRender2D(partialTicks);
+            }
+        }
+    }
+
+    public void dispatchRender3D(float partialTicks) {
+        Module[] modules = subscribers[ModuleHook.RENDER_3D.ordinal()];
+        if (ModuleProfiler.isSampling()) {
+            for (Module module : modules) {
+                long startNanos = System.nanoTime();
+                long startBytes = ModuleProfiler.allocatedBytes();
+                module.onRender3D(partialTicks);
+                ModuleProfiler.record(module, ModuleHook.RENDER_3D, startNanos, startBytes);
+            }
+        } else {
+            for (Module module : modules) {
+                module.onRender3D(partialTicks);
+            }
+        }
+    }
+
+    public void dispatchKey(int keyCode) {
+        Module[] modules = subscribers[ModuleHook.KEY.ordinal()];
+        if (ModuleProfiler.isSampling()) {
+            for (Module module : modules) {
+                long startNanos = System.nanoTime();
+                long startBytes = ModuleProfiler.allocatedBytes();
+                module.onKey(keyCode);
+                ModuleProfiler.record(module, ModuleHook.KEY, startNanos, startBytes);
+            }
+        } else {
+            for (Module module : modules) {
+                module.onKey(keyCode);
+            }
+        }
+    }
+
+    private boolean dispatchPacketIn(Packet<?> packet) {
+        Module[] modules = subscribers[ModuleHook.PACKET_IN.ordinal()];
+        boolean sampling = ModuleProfiler.isSampling();
+        for (Module module : modules) {
+            long startNanos = sampling ? System.nanoTime() : 0;
+            long startBytes = sampling ? ModuleProfiler.allocatedBytes() : 0;
+            boolean drop = module.onPacketIn(packet);
+            if (sampling) ModuleProfiler.record(module, ModuleHook.PACKET_IN, startNanos, startBytes);
+            if (drop) return true;
+        }
+        return false;
+    }
+
+    private boolean dispatchPacketOut(Packet<?> packet) {
+        Module[] modules = subscribers[ModuleHook.PACKET_OUT.ordinal()];
+        boolean sampling = ModuleProfiler.isSampling();
+        for (Module module : modules) {
+            long startNanos = sampling ? System.nanoTime() : 0;
+            long startBytes = sampling ? ModuleProfiler.allocatedBytes() : 0;
+            boolean drop = module.onPacketOut(packet);
+            if (sampling) ModuleProfiler.record(module, ModuleHook.PACKET_OUT, startNanos, startBytes);
+            if (drop) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,226 @@
+package com.github.eatgrapes.enigmaticclient.module;
+
+import com.github.eatgrapes.enigmaticclient.ui.GlyphAtlas;
+import com.github.eatgrapes.enigmaticclient.ui.HudElement;
+import com.github.eatgrapes.enigmaticclient.ui.RenderBatch2D;
+import com.github.eatgrapes.enigmaticclient.ui.TextRenderer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Samples wall time and allocated bytes around module hooks, to find modules that cost frame time.
+ * <p>
+ * Sampling is off by default; while off the dispatch loops in {@link ModuleManager} read one volatile flag and
+ * nothing else. While on, every hook call is timed and stored in a fixed ring of the last {@value #WINDOW}
+ * calls per module and hook, so memory does not grow with uptime. Allocated bytes come from
+ * {@code com.sun.management.ThreadMXBean} and are reported as 0 on JVMs without it.
+ */
+public final class ModuleProfiler {
+    private static final int WINDOW = 128;
+    private static final long OVERLAY_REFRESH_NANOS = 1_000_000_000L;
+    private static final int OVERLAY_LINES = 5;
+
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationBean();
+
+    private static volatile boolean sampling = false;
+    private static final Map<Module, Window[]> windows = new ConcurrentHashMap<>();
+
+    private static final HudElement OVERLAY = new Overlay();
+
+    private ModuleProfiler() {
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) bean;
+        if (!allocations.isThreadAllocatedMemorySupported()) return null;
+        try {
+            allocations.setThreadAllocatedMemoryEnabled(true);
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+        return allocations;
+    }
+
+    public static boolean isSampling() {
+        return sampling;
+    }
+
+    /**
+     * Switch sampling on or off. Switching on starts from empty windows.
+     */
+    public static void setSampling(boolean enabled) {
+        if (enabled && !sampling) reset();
+        sampling = enabled;
+    }
+
+    public static void reset() {
+        windows.clear();
+    }
+
+    /**
+     * Bytes allocated so far by the current thread, or 0 if the JVM does not count them.
+     */
+    static long allocatedBytes() {
+        return ALLOCATIONS != null ? ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    /**
+     * Record one hook call that started at the given time and allocation count.
+     */
+    static void record(Module module, ModuleHook hook, long startNanos, long startBytes) {
+        long now = System.nanoTime();
+        long bytes = allocatedBytes() - startBytes;
+        Window[] byHook = windows.get(module);
+        if (byHook == null) byHook = windows.computeIfAbsent(module, m -> new Window[ModuleHook.values().length]);
+        Window window = byHook[hook.ordinal()];
+        if (window == null) {
+            synchronized (byHook) {
+                window = byHook[hook.ordinal()];
+                if (window == null) byHook[hook.ordinal()] = window = new Window();
+            }
+        }
+        window.add(startNanos, now - startNanos, bytes);
+    }
+
+    /**
+     * Module hooks sampled in the current windows, the largest share of wall time first.
+     */
+    public static List<Report> getReports() {
+        long now = System.nanoTime();
+        List<Report> reports = new ArrayList<>();
+        for (Map.Entry<Module, Window[]> entry : windows.entrySet()) {
+            Window[] byHook = entry.getValue();
+            for (ModuleHook hook : ModuleHook.values()) {
+                Window window = byHook[hook.ordinal()];
+                if (window != null) {
+                    Report report = window.report(entry.getKey().getName(), hook, now);
+                    if (report != null) reports.add(report);
+                }
+            }
+        }
+        reports.sort((a, b) -> Double.compare(b.share, a.share));
+        return reports;
+    }
+
+    /**
+     * HUD element listing the top offenders in the top left corner while sampling.
+     */
+    public static HudElement getOverlay() {
+        return OVERLAY;
+    }
+
+    /**
+     * Summary of one module hook over its window.
+     */
+    public static final class Report {
+        public final String module;
+        public final ModuleHook hook;
+        public final int calls;
+        public final double meanNanos;
+        public final long maxNanos;
+        public final long meanBytes;
+        // Fraction of wall time spent in the hook since the oldest sample
+        public final double share;
+
+        Report(String module, ModuleHook hook, int calls, double meanNanos, long maxNanos, long meanBytes, double share) {
+            this.module = module;
+            this.hook = hook;
+            this.calls = calls;
+            this.meanNanos = meanNanos;
+            this.maxNanos = maxNanos;
+            this.meanBytes = meanBytes;
+            this.share = share;
+        }
+    }
+
+    /**
+     * Ring of the last {@value #WINDOW} calls of one module hook.
+     */
+    private static final class Window {
+        private final long[] starts = new long[WINDOW];
+        private final long[] nanos = new long[WINDOW];
+        private final long[] bytes = new long[WINDOW];
+        private int next;
+        private int count;
+
+        synchronized void add(long startNanos, long durationNanos, long allocatedBytes) {
+            starts[next] = startNanos;
+            nanos[next] = durationNanos;
+            bytes[next] = allocatedBytes;
+            next = (next + 1) % WINDOW;
+            if (count < WINDOW) count++;
+        }
+
+        synchronized Report report(String module, ModuleHook hook, long now) {
+            if (count == 0) return null;
+            long oldest = starts[count < WINDOW ? 0 : next];
+            long totalNanos = 0, maxNanos = 0, totalBytes = 0;
+            for (int i = 0; i < count; i++) {
+                totalNanos += nanos[i];
+                maxNanos = Math.max(maxNanos, nanos[i]);
+                totalBytes += bytes[i];
+            }
+            double share = (double) totalNanos / Math.max(1, now - oldest);
+            return new Report(module, hook, count, (double) totalNanos / count, maxNanos, totalBytes / count, share);
+        }
+    }
+
+    /**
+     * Refreshes its lines once a second, so the compositor redraws it at most that often.
+     */
+    private static final class Overlay extends HudElement {
+        private final List<String> lines = new ArrayList<>();
+        private long refreshedNanos;
+        private long version;
+        private int width;
+
+        @Override public int getX() { return 2; }
+        @Override public int getY() { return 2; }
+        @Override public int getWidth() { return width; }
+        @Override public int getHeight() { return lines.size() * (GlyphAtlas.LINE_HEIGHT + 1); }
+        @Override public boolean isVisible() { return sampling; }
+
+        @Override
+        public long stateHash() {
+            long now = System.nanoTime();
+            if (version == 0 || now - refreshedNanos >= OVERLAY_REFRESH_NANOS) {
+                refreshedNanos = now;
+                refresh();
+                version++;
+            }
+            return version;
+        }
+
+        private void refresh() {
+            List<Report> reports = getReports();
+            lines.clear();
+            lines.add("Module profile");
+            for (int i = 0; i < Math.min(OVERLAY_LINES, reports.size()); i++) {
+                Report report = reports.get(i);
+                lines.add(String.format("%s %s %.2f%% %.0fus %dB",
+                    report.module, report.hook.name(), report.share * 100, report.meanNanos / 1000.0, report.meanBytes));
+            }
+            width = 0;
+            for (String line : lines) width = Math.max(width, (int) Math.ceil(TextRenderer.getInstance().getWidth(line)) + 1);
+        }
+
+        @Override
+        public void render() {
+            RenderBatch2D batch = RenderBatch2D.getInstance();
+            batch.begin();
+            int y = getY();
+            for (int i = 0; i < lines.size(); i++) {
+                batch.text(lines.get(i), getX(), y, i == 0 ? 0xD0BCFF : 0xFFFFFF, true);
+                y += GlyphAtlas.LINE_HEIGHT + 1;
+            }
+            batch.end();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.eatgrapes.enigmaticclient.module;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Prefix index over lower-cased module names, for search as you type.
+ * <p>
+ * Every module is indexed under its full name and under each word of it that starts with a capital letter, so
+ * "bri" finds FullBright. Each node stores the matches of its whole subtree, sorted by name, so a query is one
+ * step per typed character and returns a precomputed array without allocating. Immutable once built.
+ */
+public final class ModuleTrie {
+    private static final Comparator<Module> BY_NAME = Comparator.comparing(module -> module.getName().toLowerCase());
+
+    private final Node root;
+
+    private ModuleTrie(Node root) {
+        this.root = root;
+    }
+
+    public static ModuleTrie build(Collection<Module> modules) {
+        Builder root = new Builder();
+        for (Module module : modules) {
+            String name = module.getName();
+            for (int i = 0; i < name.length(); i++) {
+                // Word starts: the first character and each capital after a lower-case letter
+                if (i == 0 || Character.isUpperCase(name.charAt(i)) && Character.isLowerCase(name.charAt(i - 1))) {
+                    root.insert(name.substring(i).toLowerCase(), module);
+                }
+            }
+        }
+        return new ModuleTrie(root.freeze());
+    }
+
+    /**
+     * Modules with a name or word starting with the prefix, sorted by name. The array must not be modified.
+     */
+    public Module[] search(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(Character.toLowerCase(prefix.charAt(i)));
+        }
+        return node != null ? node.matches : Node.NONE;
+    }
+
+    private static final class Node {
+        static final Module[] NONE = new Module[0];
+
+        // Sorted, for a binary search per character
+        final char[] keys;
+        final Node[] children;
+        final Module[] matches;
+
+        Node(char[] keys, Node[] children, Module[] matches) {
+            this.keys = keys;
+            this.children = children;
+            this.matches = matches;
+        }
+
+        Node child(char c) {
+            int low = 0, high = keys.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle] < c) low = middle + 1;
+                else if (keys[middle] > c) high = middle - 1;
+                else return children[middle];
+            }
+            return null;
+        }
+    }
+
+    private static final class Builder {
+        final Map<Character, Builder> children = new TreeMap<>();
+        final Set<Module> matches = new LinkedHashSet<>();
+
+        void insert(String key, Module module) {
+            Builder node = this;
+            node.matches.add(module);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Builder());
+                node.matches.add(module);
+            }
+        }
+
+        Node freeze() {
+            char[] keys = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder> entry : children.entrySet()) {
+                keys[i] = entry.getKey();
+                nodes[i++] = entry.getValue().freeze();
+            }
+            List<Module> sorted = new ArrayList<>(matches);
+            sorted.sort(BY_NAME);
+            return new Node(keys, nodes, sorted.toArray(new Module[0]));
+        }
+    }
+}
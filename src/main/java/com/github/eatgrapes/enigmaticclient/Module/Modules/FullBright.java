@@ -1,14 +1,18 @@
 package com.github.eatgrapes.enigmaticclient.module.modules;
 
 import com.github.eatgrapes.enigmaticclient.module.Module;
+import com.github.eatgrapes.enigmaticclient.module.ModuleCategory;
+import com.github.eatgrapes.enigmaticclient.module.ModuleHook;
+import com.github.eatgrapes.enigmaticclient.module.settings.NumberSetting;
 import net.minecraft.client.Minecraft;
 
 public class FullBright extends Module {
+    private final NumberSetting gamma = addSetting(new NumberSetting("Gamma", 16.0, 1.0, 16.0, 0.5));
     private float originalGamma = 1.0F;
     private boolean gammaStored = false;
 
     public FullBright() {
-        super("FullBright");
+        super("FullBright", ModuleCategory.RENDER, ModuleHook.TICK);
     }
 
     @Override
@@ -17,7 +21,7 @@ public class FullBright extends Module {
             originalGamma = Minecraft.getMinecraft().gameSettings.gammaSetting;
             gammaStored = true;
         }
-        Minecraft.getMinecraft().gameSettings.gammaSetting = 16.0F;
+        Minecraft.getMinecraft().gameSettings.gammaSetting = gamma.getFloat();
     }
 
     @Override
@@ -30,7 +34,7 @@ public class FullBright extends Module {
     public void onUpdate() {
         if (this.isEnabled()) {
             //Force setting of gamma
-            Minecraft.getMinecraft().gameSettings.gammaSetting = 16.0F;
+            Minecraft.getMinecraft().gameSettings.gammaSetting = gamma.getFloat();
         }
     }
-}
\ No newline at end of file
+}
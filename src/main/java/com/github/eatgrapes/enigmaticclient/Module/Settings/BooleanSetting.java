@@ -0,0 +1,37 @@
+package com.github.eatgrapes.enigmaticclient.module.settings;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class BooleanSetting extends Setting<Boolean> {
+
+    public BooleanSetting(String name, boolean defaultValue) {
+        super(name, defaultValue);
+    }
+
+    public void toggle() {
+        set(!get());
+    }
+
+    @Override
+    public boolean parse(String text) {
+        if (text.equalsIgnoreCase("on") || text.equalsIgnoreCase("true")) {
+            set(true);
+        } else if (text.equalsIgnoreCase("off") || text.equalsIgnoreCase("false")) {
+            set(false);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    @Override byte typeId() { return BOOLEAN; }
+    @Override void write(DataOutput out) throws IOException { out.writeBoolean(get()); }
+    @Override void read(DataInput in) throws IOException { apply(in.readBoolean()); }
+    @Override JsonElement toJson() { return new JsonPrimitive(get()); }
+    @Override void fromJson(JsonElement json) { set(json.getAsBoolean()); }
+}
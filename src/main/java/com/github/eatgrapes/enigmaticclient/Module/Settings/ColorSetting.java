@@ -0,0 +1,50 @@
+package com.github.eatgrapes.enigmaticclient.module.settings;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * An ARGB color, written as {@code #AARRGGBB} in commands and JSON.
+ */
+public class ColorSetting extends Setting<Integer> {
+
+    public ColorSetting(String name, int defaultArgb) {
+        super(name, defaultArgb);
+    }
+
+    public int getArgb() { return get(); }
+
+    private static Integer parseHex(String text) {
+        String hex = text.startsWith("#") ? text.substring(1) : text;
+        if (hex.length() != 6 && hex.length() != 8) return null;
+        try {
+            long value = Long.parseLong(hex, 16);
+            return (int) (hex.length() == 6 ? 0xFF000000L | value : value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean parse(String text) {
+        Integer argb = parseHex(text);
+        if (argb == null) return false;
+        set(argb);
+        return true;
+    }
+
+    @Override
+    public String format() {
+        return String.format("#%08X", get());
+    }
+
+    @Override byte typeId() { return COLOR; }
+    @Override void write(DataOutput out) throws IOException { out.writeInt(get()); }
+    @Override void read(DataInput in) throws IOException { apply(in.readInt()); }
+    @Override JsonElement toJson() { return new JsonPrimitive(format()); }
+    @Override void fromJson(JsonElement json) { set(parseHex(json.getAsString())); }
+}
@@ -0,0 +1,55 @@
+package com.github.eatgrapes.enigmaticclient.module.settings;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * One constant of an enum. Stored by name, so reordering the enum keeps saved values.
+ */
+public class EnumSetting<E extends Enum<E>> extends Setting<E> {
+    private final E[] constants;
+
+    public EnumSetting(String name, E defaultValue) {
+        super(name, defaultValue);
+        this.constants = defaultValue.getDeclaringClass().getEnumConstants();
+    }
+
+    public E[] getConstants() { return constants.clone(); }
+
+    /**
+     * Move to the next constant, wrapping around.
+     */
+    public void cycle() {
+        set(constants[(get().ordinal() + 1) % constants.length]);
+    }
+
+    private E byName(String text) {
+        for (E constant : constants) {
+            if (constant.name().equalsIgnoreCase(text)) return constant;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean parse(String text) {
+        E constant = byName(text);
+        if (constant == null) return false;
+        set(constant);
+        return true;
+    }
+
+    @Override
+    public String format() {
+        return get().name();
+    }
+
+    @Override byte typeId() { return ENUM; }
+    @Override void write(DataOutput out) throws IOException { out.writeUTF(get().name()); }
+    @Override void read(DataInput in) throws IOException { apply(byName(in.readUTF())); }
+    @Override JsonElement toJson() { return new JsonPrimitive(get().name()); }
+    @Override void fromJson(JsonElement json) { set(byName(json.getAsString())); }
+}
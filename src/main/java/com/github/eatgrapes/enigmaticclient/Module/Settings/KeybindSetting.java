@@ -0,0 +1,91 @@
+package com.github.eatgrapes.enigmaticclient.module.settings;
+
+import com.github.eatgrapes.enigmaticclient.module.KeybindManager;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import org.lwjgl.input.Keyboard;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * An LWJGL key code. {@link Keyboard#KEY_NONE} means unbound. Written by key name in commands and JSON.
+ * <p>
+ * Once its module is registered the key is owned by a {@link KeybindManager} binding: every change goes through
+ * {@link KeybindManager#bind}, so a key already used by another action is refused, and binds made with
+ * {@code .eni bind} or read from the "keybinds" section show up here. The module still reacts to the key itself.
+ */
+public class KeybindSetting extends Setting<Integer> {
+    private String bindId;
+    // Set while the binding reports its key, which must not be sent back to the manager
+    private boolean syncing;
+
+    public KeybindSetting(String name, int defaultKey) {
+        super(name, defaultKey);
+    }
+
+    public int getKey() { return get(); }
+
+    /**
+     * Id of the binding that owns the key, or null before the module is registered.
+     */
+    public String getBindId() { return bindId; }
+
+    /**
+     * Register the binding for this setting. Called once when the module is registered.
+     */
+    public void attach(String id) {
+        // Pressing the key does nothing by itself; the binding reserves it for the module
+        KeybindManager.getInstance().register(id, get(), () -> { }, this::sync);
+        bindId = id;
+    }
+
+    private void sync(int key) {
+        syncing = true;
+        try {
+            super.apply(key);
+        } finally {
+            syncing = false;
+        }
+    }
+
+    @Override
+    protected boolean apply(Integer newValue) {
+        if (bindId == null || syncing) return super.apply(newValue);
+        Integer key = sanitize(newValue);
+        if (key == null || key.equals(get())) return false;
+        // On success the manager reports the key back through sync
+        return KeybindManager.getInstance().bind(bindId, key) == null;
+    }
+
+    private static Integer byName(String text) {
+        if (text.equalsIgnoreCase("none")) return Keyboard.KEY_NONE;
+        int key = Keyboard.getKeyIndex(text.toUpperCase());
+        return key == Keyboard.KEY_NONE ? null : key;
+    }
+
+    @Override
+    protected Integer sanitize(Integer newValue) {
+        return newValue != null && newValue >= 0 && newValue < Keyboard.KEYBOARD_SIZE ? newValue : null;
+    }
+
+    @Override
+    public boolean parse(String text) {
+        Integer key = byName(text);
+        if (key == null) return false;
+        set(key);
+        return true;
+    }
+
+    @Override
+    public String format() {
+        return get() == Keyboard.KEY_NONE ? "NONE" : Keyboard.getKeyName(get());
+    }
+
+    @Override byte typeId() { return KEYBIND; }
+    @Override void write(DataOutput out) throws IOException { out.writeInt(get()); }
+    @Override void read(DataInput in) throws IOException { apply(in.readInt()); }
+    @Override JsonElement toJson() { return new JsonPrimitive(format()); }
+    @Override void fromJson(JsonElement json) { set(byName(json.getAsString())); }
+}
@@ -0,0 +1,53 @@
+package com.github.eatgrapes.enigmaticclient.module.settings;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A number clamped to a range and rounded to a step. A step of 0 keeps any value in range.
+ */
+public class NumberSetting extends Setting<Double> {
+    private final double min;
+    private final double max;
+    private final double step;
+
+    public NumberSetting(String name, double defaultValue, double min, double max, double step) {
+        super(name, defaultValue);
+        this.min = min;
+        this.max = max;
+        this.step = step;
+    }
+
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    public double getStep() { return step; }
+    public int getInt() { return (int) Math.round(get()); }
+    public float getFloat() { return get().floatValue(); }
+
+    @Override
+    protected Double sanitize(Double newValue) {
+        if (newValue == null || newValue.isNaN()) return null;
+        double value = step > 0 ? min + Math.round((newValue - min) / step) * step : newValue;
+        return Math.max(min, Math.min(max, value));
+    }
+
+    @Override
+    public boolean parse(String text) {
+        try {
+            set(Double.parseDouble(text));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @Override byte typeId() { return NUMBER; }
+    @Override void write(DataOutput out) throws IOException { out.writeDouble(get()); }
+    @Override void read(DataInput in) throws IOException { apply(in.readDouble()); }
+    @Override JsonElement toJson() { return new JsonPrimitive(get()); }
+    @Override void fromJson(JsonElement json) { set(json.getAsDouble()); }
+}
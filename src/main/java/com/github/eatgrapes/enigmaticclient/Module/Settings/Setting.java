@@ -0,0 +1,104 @@
+package com.github.eatgrapes.enigmaticclient.module.settings;
+
+import com.github.eatgrapes.enigmaticclient.config.ConfigManager;
+import com.google.gson.JsonElement;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A typed, named value owned by a module.
+ * <p>
+ * Values are clamped or validated by the subclass before they are stored. Listeners run on every change,
+ * including changes made by loading a profile; only changes through {@link #set} mark the config dirty.
+ * Each type has a fixed binary tag so {@link SettingsCodec} can skip values it does not know.
+ */
+public abstract class Setting<T> {
+    static final byte BOOLEAN = 0, NUMBER = 1, ENUM = 2, COLOR = 3, KEYBIND = 4;
+
+    private final String name;
+    private final T defaultValue;
+    private final List<Consumer<T>> listeners = new ArrayList<>();
+    private T value;
+
+    protected Setting(String name, T defaultValue) {
+        this.name = name;
+        this.defaultValue = defaultValue;
+        this.value = defaultValue;
+    }
+
+    public String getName() { return name; }
+    public T get() { return value; }
+    public T getDefault() { return defaultValue; }
+
+    public void set(T newValue) {
+        if (apply(newValue)) ConfigManager.markDirty();
+    }
+
+    public void reset() {
+        set(defaultValue);
+    }
+
+    public void addListener(Consumer<T> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Store a value without marking the config dirty, e.g. when a profile is loaded.
+     * @return Whether the stored value changed.
+     */
+    protected boolean apply(T newValue) {
+        T sanitized = sanitize(newValue);
+        if (sanitized == null || Objects.equals(sanitized, value)) return false;
+        value = sanitized;
+        for (Consumer<T> listener : listeners) {
+            listener.accept(sanitized);
+        }
+        return true;
+    }
+
+    /**
+     * Clamp or validate a new value. Null rejects it.
+     */
+    protected T sanitize(T newValue) {
+        return newValue;
+    }
+
+    /**
+     * Set the value from command input.
+     * @return false if the text is not a valid value.
+     */
+    public abstract boolean parse(String text);
+
+    /**
+     * The value as command input would spell it.
+     */
+    public String format() {
+        return String.valueOf(value);
+    }
+
+    abstract byte typeId();
+    abstract void write(DataOutput out) throws IOException;
+    abstract void read(DataInput in) throws IOException;
+    abstract JsonElement toJson();
+    abstract void fromJson(JsonElement json);
+
+    /**
+     * Skip a value of the given type in a binary block.
+     */
+    static void skip(DataInput in, byte type) throws IOException {
+        switch (type) {
+            case BOOLEAN: in.skipBytes(1); break;
+            case NUMBER: in.skipBytes(8); break;
+            case ENUM: in.readUTF(); break;
+            case COLOR:
+            case KEYBIND: in.skipBytes(4); break;
+            default: throw new IOException("Unknown setting type " + type);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.eatgrapes.enigmaticclient.module.settings;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts one module's settings to and from a binary block or a JSON object.
+ * <p>
+ * A block is a short count followed by, per setting, its name, its type tag and the value. Settings are matched
+ * by name; values whose name is unknown or whose type changed are skipped, and settings missing from the block
+ * keep their current value.
+ */
+public final class SettingsCodec {
+
+    private SettingsCodec() {
+    }
+
+    public static byte[] encode(List<Setting<?>> settings) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + settings.size() * 16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeShort(settings.size());
+            for (Setting<?> setting : settings) {
+                out.writeUTF(setting.getName());
+                out.writeByte(setting.typeId());
+                setting.write(out);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Apply a block to the given settings without marking the config dirty.
+     */
+    public static void decode(byte[] block, List<Setting<?>> settings) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(block))) {
+            int count = in.readUnsignedShort();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                byte type = in.readByte();
+                Setting<?> setting = find(settings, name);
+                if (setting != null && setting.typeId() == type) {
+                    setting.read(in);
+                } else {
+                    Setting.skip(in, type);
+                }
+            }
+        }
+    }
+
+    public static JsonObject toJson(List<Setting<?>> settings) {
+        JsonObject json = new JsonObject();
+        for (Setting<?> setting : settings) {
+            json.add(setting.getName(), setting.toJson());
+        }
+        return json;
+    }
+
+    /**
+     * Apply values from JSON. Invalid values are ignored.
+     */
+    public static void fromJson(JsonObject json, List<Setting<?>> settings) {
+        for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
+            Setting<?> setting = find(settings, entry.getKey());
+            if (setting == null) continue;
+            try {
+                setting.fromJson(entry.getValue());
+            } catch (RuntimeException e) {
+                System.out.println("[Enigmatic] Ignoring invalid value for " + entry.getKey() + ": " + entry.getValue());
+            }
+        }
+    }
+
+    private static Setting<?> find(List<Setting<?>> settings, String name) {
+        for (Setting<?> setting : settings) {
+            if (setting.getName().equalsIgnoreCase(name)) return setting;
+        }
+        return null;
+    }
+}
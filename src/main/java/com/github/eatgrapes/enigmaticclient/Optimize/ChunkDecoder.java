@@ -0,0 +1,329 @@
+package com.github.eatgrapes.enigmaticclient.optimize;
+
+import com.github.eatgrapes.enigmaticclient.mixin.AccessorChunk;
+import net.minecraft.block.Block;
+import net.minecraft.init.Blocks;
+import net.minecraft.network.play.server.S21PacketChunkData;
+import net.minecraft.network.play.server.S26PacketMapChunkBulk;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.NibbleArray;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decodes chunk packets on worker threads so the client thread only swaps in finished sections.
+ * <p>
+ * When a chunk packet arrives on the network thread, a job is queued that builds the block storage sections,
+ * copies the light nibbles, counts blocks and, for full chunks, computes the height map. The packet then takes
+ * its normal route to the client thread, where {@code Chunk.fillChunk} is redirected to {@link #fillChunk}:
+ * a finished job is installed directly, a running one is waited for, and one that has not started yet is
+ * claimed and the chunk is filled the vanilla way. Jobs are keyed by the packet's data array, which the handler
+ * passes to {@code fillChunk} unchanged. Jobs nobody claims within a few seconds are dropped, so packets that
+ * never reach {@code fillChunk} do not keep their decoded sections alive.
+ * <p>
+ * The interceptors are only registered while the {@code fillChunk} redirect is applied; without it nothing
+ * would claim the jobs.
+ */
+public final class ChunkDecoder {
+    private static final ChunkDecoder INSTANCE = new ChunkDecoder();
+
+    private static final int SECTION_BLOCKS = 4096;
+    private static final int NIBBLE_BYTES = SECTION_BLOCKS / 2;
+    private static final int BIOME_BYTES = 256;
+    // Upper bound on queued jobs; new packets are left to the vanilla path past this
+    private static final int MAX_JOBS = 1024;
+    // Jobs not claimed after this many client ticks belong to packets that never reach fillChunk
+    private static final long MAX_JOB_AGE_TICKS = 100;
+
+    // Blocks whose opacity depends on the world can only be evaluated on the client thread
+    private static final ClassValue<Boolean> WORLD_AWARE_OPACITY = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("getLightOpacity", IBlockAccess.class, BlockPos.class).getDeclaringClass() != Block.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    private final TaskScheduler scheduler = TaskScheduler.getInstance();
+    private final Map<byte[], Job> jobs = new ConcurrentHashMap<>();
+    // Client ticks so far, stamped on jobs when they are created
+    private volatile long tick;
+
+    private final AtomicLong prepared = new AtomicLong();
+    private final AtomicLong waited = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    private ChunkDecoder() {
+    }
+
+    public static ChunkDecoder getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Inbound interceptor for single chunk packets. Never drops the packet.
+     */
+    public boolean onChunkData(S21PacketChunkData packet) {
+        Job job = createJob(packet.func_149272_d(), packet.getExtractedSize(), packet.func_149274_i());
+        if (job != null) scheduler.submit(TaskPriority.TICK_CRITICAL, job::run);
+        return false;
+    }
+
+    /**
+     * Inbound interceptor for chunk bulk packets. The chunks of one packet are decoded by one worker in order.
+     * Never drops the packet.
+     */
+    public boolean onMapChunkBulk(S26PacketMapChunkBulk packet) {
+        int count = packet.getChunkCount();
+        Job[] bulk = new Job[count];
+        for (int i = 0; i < count; i++) {
+            bulk[i] = createJob(packet.getChunkBytes(i), packet.getChunkSize(i), true);
+        }
+        scheduler.submit(TaskPriority.TICK_CRITICAL, () -> {
+            for (Job job : bulk) {
+                if (job != null) job.run();
+            }
+        });
+        return false;
+    }
+
+    private Job createJob(byte[] data, int mask, boolean full) {
+        if (mask == 0 || jobs.size() >= MAX_JOBS) return null;
+        Job job = new Job(data, mask, full, tick);
+        jobs.put(data, job);
+        return job;
+    }
+
+    /**
+     * Replacement for {@link Chunk#fillChunk} in the chunk packet handlers. Client thread only.
+     */
+    public void fillChunk(Chunk chunk, byte[] data, int mask, boolean full) {
+        Job job = jobs.remove(data);
+        PreparedChunk result = job != null ? job.claim() : null;
+        boolean hasSky = !chunk.getWorld().provider.getHasNoSky();
+        if (result == null || result.hasSky != hasSky) {
+            fallbacks.incrementAndGet();
+            chunk.fillChunk(data, mask, full);
+            return;
+        }
+        install(chunk, result, mask, full);
+    }
+
+    /**
+     * Drop pending jobs, e.g. when leaving a world.
+     */
+    public void clear() {
+        jobs.clear();
+    }
+
+    /**
+     * Advance the tick stamp and drop jobs nobody claimed in time. Called once per client tick.
+     */
+    public void tick() {
+        long now = ++tick;
+        if (jobs.isEmpty()) return;
+        jobs.values().removeIf(job -> now - job.createdTick > MAX_JOB_AGE_TICKS);
+    }
+
+    private void install(Chunk chunk, PreparedChunk result, int mask, boolean full) {
+        ExtendedBlockStorage[] storage = chunk.getBlockStorageArray();
+        for (int y = 0; y < storage.length; y++) {
+            if ((mask & 1 << y) != 0) {
+                storage[y] = result.sections[y];
+            } else if (full) {
+                storage[y] = null;
+            }
+        }
+        if (full) System.arraycopy(result.biomes, 0, chunk.getBiomeArray(), 0, BIOME_BYTES);
+
+        chunk.setLightPopulated(true);
+        chunk.setTerrainPopulated(true);
+        if (result.heightMap != null) {
+            System.arraycopy(result.heightMap, 0, chunk.getHeightMap(), 0, result.heightMap.length);
+            AccessorChunk accessor = (AccessorChunk) chunk;
+            accessor.setHeightMapMinimum(result.heightMapMinimum);
+            Arrays.fill(accessor.getPrecipitationHeightMap(), -999);
+            chunk.setChunkModified();
+        } else {
+            chunk.generateHeightMap();
+        }
+        for (TileEntity tileEntity : chunk.getTileEntityMap().values()) {
+            tileEntity.updateContainingBlockInfo();
+        }
+    }
+
+    /**
+     * Mirrors the decoding half of {@link Chunk#fillChunk} on detached sections.
+     */
+    private static PreparedChunk decode(byte[] data, int mask, boolean full) {
+        int sectionCount = Integer.bitCount(mask);
+        int biomeBytes = full ? BIOME_BYTES : 0;
+        // The server only sends sky light for worlds that have it, so the length tells which layout this is
+        boolean hasSky;
+        if (data.length == sectionCount * (SECTION_BLOCKS * 2 + NIBBLE_BYTES * 2) + biomeBytes) {
+            hasSky = true;
+        } else if (data.length == sectionCount * (SECTION_BLOCKS * 2 + NIBBLE_BYTES) + biomeBytes) {
+            hasSky = false;
+        } else {
+            return null;
+        }
+
+        ExtendedBlockStorage[] sections = new ExtendedBlockStorage[16];
+        int offset = 0;
+        for (int y = 0; y < 16; y++) {
+            if ((mask & 1 << y) == 0) continue;
+            ExtendedBlockStorage section = new ExtendedBlockStorage(y << 4, hasSky);
+            char[] blocks = section.getData();
+            for (int i = 0; i < blocks.length; i++) {
+                blocks[i] = (char) ((data[offset + 1] & 255) << 8 | data[offset] & 255);
+                offset += 2;
+            }
+            sections[y] = section;
+        }
+        for (ExtendedBlockStorage section : sections) {
+            if (section == null) continue;
+            NibbleArray blockLight = section.getBlocklightArray();
+            System.arraycopy(data, offset, blockLight.getData(), 0, NIBBLE_BYTES);
+            offset += NIBBLE_BYTES;
+        }
+        if (hasSky) {
+            for (ExtendedBlockStorage section : sections) {
+                if (section == null) continue;
+                NibbleArray skyLight = section.getSkylightArray();
+                System.arraycopy(data, offset, skyLight.getData(), 0, NIBBLE_BYTES);
+                offset += NIBBLE_BYTES;
+            }
+        }
+        byte[] biomes = null;
+        if (full) {
+            biomes = Arrays.copyOfRange(data, offset, offset + BIOME_BYTES);
+        }
+        for (ExtendedBlockStorage section : sections) {
+            if (section != null) section.removeInvalidBlocks();
+        }
+
+        PreparedChunk result = new PreparedChunk(sections, biomes, hasSky);
+        // Sections outside the mask keep their old contents on partial updates, so only full chunks are known
+        if (full) computeHeightMap(result);
+        return result;
+    }
+
+    /**
+     * Mirrors {@link Chunk#generateHeightMap}. Leaves the height map unset if a block's opacity needs the world.
+     */
+    private static void computeHeightMap(PreparedChunk result) {
+        int top = -1;
+        for (int y = 15; y >= 0; y--) {
+            if (result.sections[y] != null) {
+                top = y << 4;
+                break;
+            }
+        }
+
+        int[] heightMap = new int[256];
+        int minimum = Integer.MAX_VALUE;
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                for (int y = top + 16; y > 0; y--) {
+                    ExtendedBlockStorage section = result.sections[(y - 1) >> 4];
+                    Block block = section == null ? Blocks.air : section.get(x, (y - 1) & 15, z).getBlock();
+                    if (WORLD_AWARE_OPACITY.get(block.getClass())) return;
+                    if (block.getLightOpacity() != 0) {
+                        heightMap[z << 4 | x] = y;
+                        if (y < minimum) minimum = y;
+                        break;
+                    }
+                }
+            }
+        }
+        result.heightMap = heightMap;
+        result.heightMapMinimum = minimum;
+    }
+
+    public long getPrepared() { return prepared.get(); }
+    public long getWaited() { return waited.get(); }
+    public long getFallbacks() { return fallbacks.get(); }
+    public int getPendingJobs() { return jobs.size(); }
+
+    private static final class PreparedChunk {
+        final ExtendedBlockStorage[] sections;
+        final byte[] biomes;
+        final boolean hasSky;
+        int[] heightMap;
+        int heightMapMinimum;
+
+        PreparedChunk(ExtendedBlockStorage[] sections, byte[] biomes, boolean hasSky) {
+            this.sections = sections;
+            this.biomes = biomes;
+            this.hasSky = hasSky;
+        }
+    }
+
+    /**
+     * One chunk decode, claimed either by a worker or by the client thread, whichever gets there first.
+     */
+    private final class Job {
+        private static final int PENDING = 0, RUNNING = 1, DONE = 2, CLAIMED = 3;
+
+        private final byte[] data;
+        private final int mask;
+        private final boolean full;
+        final long createdTick;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private PreparedChunk result;
+
+        Job(byte[] data, int mask, boolean full, long createdTick) {
+            this.data = data;
+            this.mask = mask;
+            this.full = full;
+            this.createdTick = createdTick;
+        }
+
+        void run() {
+            if (!state.compareAndSet(PENDING, RUNNING)) return;
+            try {
+                result = decode(data, mask, full);
+                if (result != null) prepared.incrementAndGet();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                synchronized (this) {
+                    state.set(DONE);
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * @return The decoded chunk, or null if the caller should decode it itself.
+         */
+        PreparedChunk claim() {
+            if (state.compareAndSet(PENDING, CLAIMED)) return null;
+            if (state.get() == RUNNING) {
+                waited.incrementAndGet();
+                synchronized (this) {
+                    while (state.get() == RUNNING) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return null;
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
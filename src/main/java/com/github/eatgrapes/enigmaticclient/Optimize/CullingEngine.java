@@ -0,0 +1,200 @@
+package com.github.eatgrapes.enigmaticclient.optimize;
+
+import com.github.eatgrapes.enigmaticclient.config.OptimizeConfig;
+import com.github.eatgrapes.enigmaticclient.mixin.AccessorFrustum;
+import net.minecraft.client.renderer.culling.ClippingHelper;
+import net.minecraft.client.renderer.culling.Frustum;
+import net.minecraft.client.renderer.culling.ICamera;
+import net.minecraft.client.renderer.entity.RenderManager;
+import net.minecraft.entity.Entity;
+
+import java.util.Arrays;
+
+/**
+ * Entity culling against the real view frustum, evaluated in parallel over the tick's {@link EntitySnapshot}.
+ * <p>
+ * At the start of the entity pass the planes of the frustum the pass was given are copied, every snapshot AABB is tested on the
+ * fork-join pool, and the result is published as a bitset indexed by snapshot slot. The entity render loop then
+ * consults the bitset before any GL work; entities missing from the snapshot fall back to the vanilla check.
+ * The snapshot stays pinned until the next frame, so Forge's second entity pass reuses the same bitset.
+ */
+public final class CullingEngine {
+    private static final CullingEngine INSTANCE = new CullingEngine();
+
+    // Extra room around snapshot boxes for held items, armor and name tags
+    private static final double BOX_MARGIN = 0.5;
+
+    private final EntitySnapshotManager snapshots = EntitySnapshotManager.getInstance();
+    private final float[] planes = new float[24];
+    private long[] visible = new long[0];
+
+    private volatile EntityAnalysis analysis = EntityAnalysis.EMPTY;
+    private EntitySnapshot frameSnapshot;
+    private long frameTick = -1;
+    private float framePartialTicks = Float.NaN;
+
+    // Counters for the last frame, read by the .eni render command
+    private volatile int lastTested;
+    private volatile int lastVisible;
+    private int culledThisFrame;
+    private volatile int lastCulled;
+
+    private CullingEngine() {
+    }
+
+    public static CullingEngine getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Latest entity analysis, used to pick the nearest entities when a render budget is set.
+     */
+    void publishAnalysis(EntityAnalysis analysis) {
+        this.analysis = analysis;
+    }
+
+    /**
+     * Prepare the visibility bitset for this frame. Called at the start of the entity pass on the render thread
+     * with the camera the pass tests against. Cameras other than a {@link Frustum} are left to the vanilla check.
+     */
+    public void beginFrame(Entity viewer, ICamera camera, float partialTicks) {
+        lastCulled = culledThisFrame;
+        culledThisFrame = 0;
+        if (!OptimizeConfig.isEntityCulling() || !(camera instanceof Frustum)) {
+            endFrame();
+            return;
+        }
+
+        EntitySnapshot snapshot = snapshots.acquire();
+        if (snapshot == null) {
+            endFrame();
+            return;
+        }
+        // Forge runs the entity pass once per render layer; reuse the result when nothing changed
+        if (snapshot == frameSnapshot && snapshot.getTick() == frameTick && partialTicks == framePartialTicks) {
+            snapshots.release(snapshot);
+            return;
+        }
+        endFrame();
+        frameSnapshot = snapshot;
+        frameTick = snapshot.getTick();
+        framePartialTicks = partialTicks;
+
+        // The planes the frame already computed; ClippingHelperImpl.getInstance() would read the matrices again
+        ClippingHelper clipping = ((AccessorFrustum) camera).getClippingHelper();
+        for (int i = 0; i < 6; i++) {
+            System.arraycopy(clipping.frustum[i], 0, planes, i * 4, 4);
+        }
+        double camX = viewer.lastTickPosX + (viewer.posX - viewer.lastTickPosX) * partialTicks;
+        double camY = viewer.lastTickPosY + (viewer.posY - viewer.lastTickPosY) * partialTicks;
+        double camZ = viewer.lastTickPosZ + (viewer.posZ - viewer.lastTickPosZ) * partialTicks;
+
+        computeVisibility(snapshot, camX, camY, camZ);
+    }
+
+    /**
+     * Release the snapshot pinned for the current frame, e.g. when culling is turned off.
+     */
+    public void endFrame() {
+        if (frameSnapshot != null) {
+            snapshots.release(frameSnapshot);
+            frameSnapshot = null;
+            frameTick = -1;
+            framePartialTicks = Float.NaN;
+        }
+    }
+
+    /**
+     * Replacement for {@link RenderManager#shouldRender} in the entity render loop.
+     */
+    public boolean shouldRender(RenderManager renderManager, Entity entity, ICamera camera, double camX, double camY, double camZ) {
+        EntitySnapshot snapshot = frameSnapshot;
+        if (snapshot != null) {
+            int slot = snapshot.slotOf(entity.getEntityId());
+            if (slot >= 0 && (visible[slot >>> 6] & (1L << slot)) == 0) {
+                culledThisFrame++;
+                return false;
+            }
+        }
+        return renderManager.shouldRender(entity, camera, camX, camY, camZ);
+    }
+
+    private void computeVisibility(EntitySnapshot snapshot, double camX, double camY, double camZ) {
+        int size = snapshot.size();
+        int words = (size + 63) >>> 6;
+        if (visible.length < words) visible = new long[Math.max(words, visible.length * 2)];
+        Arrays.fill(visible, 0, words, 0L);
+
+        double cullDistance = OptimizeConfig.getEntityCullDistance();
+        double cullDistanceSq = cullDistance > 0 ? cullDistance * cullDistance : Double.MAX_VALUE;
+        long[] bits = visible;
+
+        // Range starts are multiples of 64, so each task owns whole words of the bitset
+        snapshot.forEachParallel((from, to) -> {
+            for (int slot = from; slot < to; slot++) {
+                if (isVisible(snapshot, slot, camX, camY, camZ, cullDistanceSq)) {
+                    bits[slot >>> 6] |= 1L << slot;
+                }
+            }
+        });
+
+        int budget = OptimizeConfig.getEntityRenderBudget();
+        if (budget > 0) applyBudget(snapshot, budget);
+
+        int count = 0;
+        for (int i = 0; i < words; i++) count += Long.bitCount(visible[i]);
+        lastTested = size;
+        lastVisible = count;
+    }
+
+    private boolean isVisible(EntitySnapshot snapshot, int slot, double camX, double camY, double camZ, double cullDistanceSq) {
+        if (snapshot.flags[slot] == EntitySnapshot.FLAG_NEVER_CULL) return true;
+        EntitySnapshot.Kind kind = snapshot.kindAt(slot);
+        if (kind == EntitySnapshot.Kind.SELF || kind == EntitySnapshot.Kind.OTHER) return true;
+
+        // Cover the whole interpolation path between the previous and current tick positions
+        double halfWidth = snapshot.widths[slot] / 2.0 + BOX_MARGIN;
+        double minX = Math.min(snapshot.prevX[slot], snapshot.posX[slot]) - halfWidth - camX;
+        double maxX = Math.max(snapshot.prevX[slot], snapshot.posX[slot]) + halfWidth - camX;
+        double minY = Math.min(snapshot.prevY[slot], snapshot.posY[slot]) - BOX_MARGIN - camY;
+        double maxY = Math.max(snapshot.prevY[slot], snapshot.posY[slot]) + snapshot.heights[slot] + BOX_MARGIN - camY;
+        double minZ = Math.min(snapshot.prevZ[slot], snapshot.posZ[slot]) - halfWidth - camZ;
+        double maxZ = Math.max(snapshot.prevZ[slot], snapshot.posZ[slot]) + halfWidth - camZ;
+
+        if (kind != EntitySnapshot.Kind.PLAYER) {
+            double dx = (minX + maxX) / 2.0;
+            double dy = (minY + maxY) / 2.0;
+            double dz = (minZ + maxZ) / 2.0;
+            if (dx * dx + dy * dy + dz * dz > cullDistanceSq) return false;
+        }
+
+        for (int i = 0; i < 24; i += 4) {
+            float a = planes[i], b = planes[i + 1], c = planes[i + 2], d = planes[i + 3];
+            // Test the corner furthest along the plane normal; if even that is behind, the box is outside
+            double x = a > 0 ? maxX : minX;
+            double y = b > 0 ? maxY : minY;
+            double z = c > 0 ? maxZ : minZ;
+            if (a * x + b * y + c * z + d <= 0) return false;
+        }
+        return true;
+    }
+
+    private void applyBudget(EntitySnapshot snapshot, int budget) {
+        EntityAnalysis current = analysis;
+        if (current.getTick() != snapshot.getTick()) return;
+
+        int kept = 0;
+        for (int id : current.getIdsByDistance()) {
+            int slot = snapshot.slotOf(id);
+            if (slot < 0 || (visible[slot >>> 6] & (1L << slot)) == 0) continue;
+            EntitySnapshot.Kind kind = snapshot.kindAt(slot);
+            if (kind == EntitySnapshot.Kind.SELF || kind == EntitySnapshot.Kind.PLAYER
+                || kind == EntitySnapshot.Kind.OTHER || snapshot.flags[slot] == EntitySnapshot.FLAG_NEVER_CULL) continue;
+            if (++kept > budget) visible[slot >>> 6] &= ~(1L << slot);
+        }
+    }
+
+    public int getLastTested() { return lastTested; }
+    public int getLastVisible() { return lastVisible; }
+    public int getLastCulled() { return lastCulled; }
+}
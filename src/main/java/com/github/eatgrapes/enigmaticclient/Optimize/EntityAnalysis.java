@@ -0,0 +1,85 @@
+package com.github.eatgrapes.enigmaticclient.optimize;
+
+import java.util.Arrays;
+
+/**
+ * Immutable per-tick results computed from an {@link EntitySnapshot} on worker threads.
+ */
+public final class EntityAnalysis {
+    public static final EntityAnalysis EMPTY = new EntityAnalysis(-1, new int[0], new int[0], 0);
+
+    private final long tick;
+    private final int[] movingIds;
+    private final int[] idsByDistance;
+    private final int outOfRangeCount;
+
+    private EntityAnalysis(long tick, int[] movingIds, int[] idsByDistance, int outOfRangeCount) {
+        this.tick = tick;
+        this.movingIds = movingIds;
+        this.idsByDistance = idsByDistance;
+        this.outOfRangeCount = outOfRangeCount;
+    }
+
+    /**
+     * Run motion detection, distance sorting and range culling over a pinned snapshot.
+     * @param renderRange Distance in blocks beyond which entities are culling candidates.
+     */
+    public static EntityAnalysis compute(EntitySnapshot snapshot, double renderRange) {
+        int size = snapshot.size();
+        boolean[] moving = new boolean[size];
+        // Squared distance in the high half, slot in the low half: sorting the longs sorts slots by distance
+        long[] distanceKeys = new long[size];
+        double rangeSq = renderRange * renderRange;
+
+        snapshot.forEachParallel((from, to) -> {
+            for (int slot = from; slot < to; slot++) {
+                moving[slot] = snapshot.isMoving(slot);
+                float distanceSq = (float) snapshot.distanceSqToViewer(slot);
+                distanceKeys[slot] = ((long) Float.floatToIntBits(distanceSq) << 32) | slot;
+            }
+        });
+
+        int movingCount = 0;
+        int outOfRange = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (moving[slot]) movingCount++;
+        }
+        int[] movingIds = new int[movingCount];
+        for (int slot = 0, i = 0; slot < size; slot++) {
+            if (moving[slot]) movingIds[i++] = snapshot.ids[slot];
+        }
+
+        if (size > 4096) {
+            Arrays.parallelSort(distanceKeys);
+        } else {
+            Arrays.sort(distanceKeys);
+        }
+        int[] idsByDistance = new int[size];
+        for (int i = 0; i < size; i++) {
+            int slot = (int) distanceKeys[i];
+            idsByDistance[i] = snapshot.ids[slot];
+            if (Float.intBitsToFloat((int) (distanceKeys[i] >>> 32)) > rangeSq) outOfRange++;
+        }
+
+        return new EntityAnalysis(snapshot.getTick(), movingIds, idsByDistance, outOfRange);
+    }
+
+    public long getTick() { return tick; }
+
+    /**
+     * Ids of entities whose position changed during the analysed tick.
+     */
+    public int[] getMovingIds() { return movingIds; }
+
+    /**
+     * Ids of all entities, nearest to the viewer first.
+     */
+    public int[] getIdsByDistance() { return idsByDistance; }
+
+    /**
+     * Number of entities outside the render range, i.e. culling candidates.
+     */
+    public int getOutOfRangeCount() { return outOfRangeCount; }
+
+    public int getEntitiesInRange() { return idsByDistance.length - outOfRangeCount; }
+}
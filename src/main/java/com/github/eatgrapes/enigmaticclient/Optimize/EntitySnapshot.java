@@ -0,0 +1,229 @@
+package com.github.eatgrapes.enigmaticclient.optimize;
+
+import net.minecraft.client.entity.EntityPlayerSP;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLiving;
+import net.minecraft.entity.IProjectile;
+import net.minecraft.entity.item.EntityItem;
+import net.minecraft.entity.item.EntityXPOrb;
+import net.minecraft.entity.monster.IMob;
+import net.minecraft.entity.passive.IAnimals;
+import net.minecraft.entity.player.EntityPlayer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read-only structure-of-arrays copy of the loaded entity list for one client tick.
+ * <p>
+ * Captured once on the client thread by {@link EntitySnapshotManager}, after which any number of worker threads
+ * may read it. The arrays are reused between captures and only grow, so a capture allocates nothing per entity.
+ * Slot {@code i} of every array describes the same entity.
+ */
+public final class EntitySnapshot {
+    private static final int PARALLEL_THRESHOLD = 128;
+    private static final Kind[] KINDS = Kind.values();
+
+    /** Set in {@link #flags} for entities that must never be culled, e.g. leashed or frustum-exempt ones. */
+    public static final byte FLAG_NEVER_CULL = 1;
+
+    /**
+     * Coarse entity categories, stored per slot in {@link #kinds} as ordinals.
+     */
+    public enum Kind {
+        SELF, PLAYER, HOSTILE, PASSIVE, ITEM, PROJECTILE, OTHER;
+
+        private static final ClassValue<Kind> BY_CLASS = new ClassValue<Kind>() {
+            @Override
+            protected Kind computeValue(Class<?> type) {
+                if (EntityPlayerSP.class.isAssignableFrom(type)) return SELF;
+                if (EntityPlayer.class.isAssignableFrom(type)) return PLAYER;
+                if (IMob.class.isAssignableFrom(type)) return HOSTILE;
+                if (IAnimals.class.isAssignableFrom(type)) return PASSIVE;
+                if (EntityItem.class.isAssignableFrom(type) || EntityXPOrb.class.isAssignableFrom(type)) return ITEM;
+                if (IProjectile.class.isAssignableFrom(type)) return PROJECTILE;
+                return OTHER;
+            }
+        };
+
+        /**
+         * Classify an entity. The result is cached per class, so this is a single lookup per call.
+         */
+        public static Kind of(Entity entity) {
+            return BY_CLASS.get(entity.getClass());
+        }
+    }
+
+    /**
+     * Body of a parallel pass over a slot range {@code [from, to)}.
+     */
+    public interface RangeBody {
+        void run(int from, int to);
+    }
+
+    public double[] posX = new double[0];
+    public double[] posY = new double[0];
+    public double[] posZ = new double[0];
+    public double[] prevX = new double[0];
+    public double[] prevY = new double[0];
+    public double[] prevZ = new double[0];
+    public int[] ids = new int[0];
+    public byte[] kinds = new byte[0];
+    public float[] widths = new float[0];
+    public float[] heights = new float[0];
+    public byte[] flags = new byte[0];
+
+    private int size;
+    private long tick;
+    private double viewerX, viewerY, viewerZ;
+
+    // Open-addressing entity id -> slot index, sized to twice the next power of two above capacity
+    private int[] slotKeys = new int[0];
+    private int[] slotValues = new int[0];
+    private int slotMask;
+
+    final AtomicInteger readers = new AtomicInteger();
+
+    EntitySnapshot() {
+    }
+
+    /**
+     * Fill this snapshot from the live entity list. Client thread only.
+     */
+    void capture(List<Entity> entities, Entity viewer, long tick) {
+        int count = entities.size();
+        ensureCapacity(count);
+        Arrays.fill(slotKeys, -1);
+
+        for (int i = 0; i < count; i++) {
+            Entity entity = entities.get(i);
+            posX[i] = entity.posX;
+            posY[i] = entity.posY;
+            posZ[i] = entity.posZ;
+            prevX[i] = entity.prevPosX;
+            prevY[i] = entity.prevPosY;
+            prevZ[i] = entity.prevPosZ;
+            ids[i] = entity.getEntityId();
+            kinds[i] = (byte) Kind.of(entity).ordinal();
+            widths[i] = entity.width;
+            heights[i] = entity.height;
+            flags[i] = entity.ignoreFrustumCheck || (entity instanceof EntityLiving && ((EntityLiving) entity).getLeashed())
+                ? FLAG_NEVER_CULL : 0;
+            putSlot(ids[i], i);
+        }
+
+        this.size = count;
+        this.tick = tick;
+        this.viewerX = viewer.posX;
+        this.viewerY = viewer.posY;
+        this.viewerZ = viewer.posZ;
+    }
+
+    private void ensureCapacity(int count) {
+        if (ids.length >= count) return;
+        int capacity = Math.max(64, Integer.highestOneBit(Math.max(1, count - 1)) << 1);
+        posX = new double[capacity];
+        posY = new double[capacity];
+        posZ = new double[capacity];
+        prevX = new double[capacity];
+        prevY = new double[capacity];
+        prevZ = new double[capacity];
+        ids = new int[capacity];
+        kinds = new byte[capacity];
+        widths = new float[capacity];
+        heights = new float[capacity];
+        flags = new byte[capacity];
+        slotKeys = new int[capacity * 2];
+        slotValues = new int[capacity * 2];
+        slotMask = capacity * 2 - 1;
+    }
+
+    private void putSlot(int id, int slot) {
+        // Entity ids are never negative, so -1 marks an empty bucket
+        int index = mix(id) & slotMask;
+        while (slotKeys[index] != -1) {
+            index = (index + 1) & slotMask;
+        }
+        slotKeys[index] = id;
+        slotValues[index] = slot;
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Slot of an entity id in this snapshot.
+     * @return The slot index, or -1 if the entity was not loaded when the snapshot was taken.
+     */
+    public int slotOf(int entityId) {
+        if (slotKeys.length == 0) return -1;
+        int index = mix(entityId) & slotMask;
+        int key;
+        while ((key = slotKeys[index]) != -1) {
+            if (key == entityId) return slotValues[index];
+            index = (index + 1) & slotMask;
+        }
+        return -1;
+    }
+
+    public int size() { return size; }
+    public long getTick() { return tick; }
+    public double getViewerX() { return viewerX; }
+    public double getViewerY() { return viewerY; }
+    public double getViewerZ() { return viewerZ; }
+
+    public Kind kindAt(int slot) {
+        return KINDS[kinds[slot]];
+    }
+
+    public boolean isMoving(int slot) {
+        return posX[slot] != prevX[slot] || posY[slot] != prevY[slot] || posZ[slot] != prevZ[slot];
+    }
+
+    public double distanceSqToViewer(int slot) {
+        double dx = posX[slot] - viewerX;
+        double dy = posY[slot] - viewerY;
+        double dz = posZ[slot] - viewerZ;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Run a pass over every slot, split across the common fork-join pool once the snapshot is large enough.
+     * Ranges never overlap and every range starts at a multiple of 64, so bodies may write
+     * per-slot results into shared arrays or 64-bit words without coordination.
+     */
+    public void forEachParallel(RangeBody body) {
+        if (size <= PARALLEL_THRESHOLD) {
+            body.run(0, size);
+        } else {
+            ForkJoinPool.commonPool().invoke(new RangeTask(body, 0, size));
+        }
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private final RangeBody body;
+        private final int from, to;
+
+        RangeTask(RangeBody body, int from, int to) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                body.run(from, to);
+                return;
+            }
+            int mid = ((from + to) >>> 1) & ~63;
+            if (mid <= from) mid = from + 64;
+            invokeAll(new RangeTask(body, from, mid), new RangeTask(body, mid, to));
+        }
+    }
+}
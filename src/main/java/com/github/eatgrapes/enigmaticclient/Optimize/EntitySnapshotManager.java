@@ -0,0 +1,76 @@
+package com.github.eatgrapes.enigmaticclient.optimize;
+
+import net.minecraft.entity.Entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Captures and publishes {@link EntitySnapshot}s.
+ * <p>
+ * The client thread captures into a buffer nobody is reading and then publishes it; readers pin the
+ * published snapshot with {@link #acquire()} and must {@link #release} it when done. A pinned buffer is never
+ * overwritten, so readers always see one consistent tick.
+ */
+public final class EntitySnapshotManager {
+    private static final EntitySnapshotManager INSTANCE = new EntitySnapshotManager();
+
+    private final List<EntitySnapshot> buffers = new ArrayList<>();
+    private volatile EntitySnapshot latest;
+
+    private EntitySnapshotManager() {
+    }
+
+    public static EntitySnapshotManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Copy the entity list into a free buffer and publish it. Client thread only.
+     */
+    public EntitySnapshot capture(List<Entity> entities, Entity viewer, long tick) {
+        EntitySnapshot target = null;
+        for (EntitySnapshot buffer : buffers) {
+            if (buffer != latest && buffer.readers.get() == 0) {
+                target = buffer;
+                break;
+            }
+        }
+        if (target == null) {
+            // Every buffer is pinned by a slow reader; grow instead of blocking the tick
+            target = new EntitySnapshot();
+            buffers.add(target);
+        }
+
+        target.capture(entities, viewer, tick);
+        latest = target;
+        return target;
+    }
+
+    /**
+     * Pin the latest snapshot for reading.
+     * @return The snapshot, or null if nothing has been captured yet.
+     */
+    public EntitySnapshot acquire() {
+        while (true) {
+            EntitySnapshot snapshot = latest;
+            if (snapshot == null) return null;
+            snapshot.readers.incrementAndGet();
+            // Re-check after pinning: if a newer capture was published meanwhile, this buffer may be reused
+            if (snapshot == latest) return snapshot;
+            snapshot.readers.decrementAndGet();
+        }
+    }
+
+    public void release(EntitySnapshot snapshot) {
+        snapshot.readers.decrementAndGet();
+    }
+
+    /**
+     * Forget all buffers, e.g. when leaving a world. Client thread only.
+     */
+    public void clear() {
+        latest = null;
+        buffers.removeIf(buffer -> buffer.readers.get() == 0);
+    }
+}
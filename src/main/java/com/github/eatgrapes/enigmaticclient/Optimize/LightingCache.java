@@ -0,0 +1,221 @@
+package com.github.eatgrapes.enigmaticclient.optimize;
+
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity {@code BlockPos -> light brightness} cache for the client world.
+ * <p>
+ * Keys are packed {@link BlockPos#toLong()} values in a primitive open-addressing table (linear probing,
+ * backward-shift deletion), so lookups never box. When the table is full the CLOCK hand evicts an entry that
+ * has not been read since the hand last passed it. Entries are dropped per chunk whenever blocks or light in
+ * that chunk change, and all at once when the world or the sky light level changes.
+ * <p>
+ * Client thread only.
+ */
+public final class LightingCache {
+    private static final LightingCache INSTANCE = new LightingCache(8192);
+
+    // BlockPos.toLong() layout: 26 bits X, 12 bits Y, 26 bits Z
+    private static final int X_SHIFT = 38;
+    private static final int Z_BITS = 26;
+    private static final int MAX_PENDING_CHUNKS = 64;
+
+    private final long[] keys;
+    private final float[] values;
+    private final boolean[] used;
+    private final boolean[] referenced;
+    private final int mask;
+    private final int maxEntries;
+    private int size;
+    private int hand;
+
+    // Chunks changed since the last lookup, swept lazily in one pass
+    private final long[] pendingChunks = new long[MAX_PENDING_CHUNKS];
+    private int pendingCount;
+    private boolean pendingOverflow;
+
+    private World world;
+    private int skylightSubtracted;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    private LightingCache(int tableSize) {
+        keys = new long[tableSize];
+        values = new float[tableSize];
+        used = new boolean[tableSize];
+        referenced = new boolean[tableSize];
+        mask = tableSize - 1;
+        maxEntries = tableSize * 3 / 4;
+    }
+
+    public static LightingCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Cached replacement for {@link World#getLightBrightness(BlockPos)}.
+     */
+    public float getLightBrightness(World world, BlockPos pos) {
+        if (world != this.world || world.getSkylightSubtracted() != skylightSubtracted) {
+            clear();
+            this.world = world;
+            this.skylightSubtracted = world.getSkylightSubtracted();
+        } else if (pendingCount > 0 || pendingOverflow) {
+            sweepPending();
+        }
+
+        long key = pos.toLong();
+        int index = find(key);
+        if (index >= 0) {
+            referenced[index] = true;
+            hits++;
+            return values[index];
+        }
+
+        misses++;
+        float brightness = world.getLightBrightness(pos);
+        put(key, brightness);
+        return brightness;
+    }
+
+    /**
+     * Drop cached values for every chunk touching the given block range.
+     * Hooked into the renderer's block update notifications, which cover block changes, light changes and
+     * freshly received chunk data.
+     */
+    public void invalidateBlocks(int minX, int minZ, int maxX, int maxZ) {
+        if (size == 0) return;
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                markChunk(chunkX, chunkZ);
+            }
+        }
+    }
+
+    private void markChunk(int chunkX, int chunkZ) {
+        long chunkKey = chunkKey(chunkX, chunkZ);
+        for (int i = 0; i < pendingCount; i++) {
+            if (pendingChunks[i] == chunkKey) return;
+        }
+        if (pendingCount == MAX_PENDING_CHUNKS) {
+            pendingOverflow = true;
+        } else {
+            pendingChunks[pendingCount++] = chunkKey;
+        }
+    }
+
+    private void sweepPending() {
+        if (pendingOverflow) {
+            clear();
+            return;
+        }
+        for (int index = 0; index <= mask; index++) {
+            // Deleting shifts a later entry into this slot, so keep checking the same slot
+            while (used[index] && isPending(keys[index])) {
+                delete(index);
+                invalidations++;
+            }
+        }
+        pendingCount = 0;
+    }
+
+    private boolean isPending(long blockKey) {
+        long chunkKey = chunkKey((int) (blockKey >> X_SHIFT) >> 4, (int) ((blockKey << (64 - Z_BITS)) >> (64 - Z_BITS)) >> 4);
+        for (int i = 0; i < pendingCount; i++) {
+            if (pendingChunks[i] == chunkKey) return true;
+        }
+        return false;
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private int find(long key) {
+        int index = slot(key);
+        while (used[index]) {
+            if (keys[index] == key) return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void put(long key, float value) {
+        if (size >= maxEntries) evictOne();
+        int index = slot(key);
+        while (used[index]) {
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        used[index] = true;
+        referenced[index] = false;
+        size++;
+    }
+
+    private void evictOne() {
+        while (true) {
+            if (used[hand]) {
+                if (referenced[hand]) {
+                    referenced[hand] = false;
+                } else {
+                    // The shifted-in entry lands on the hand and gets its turn on the next eviction
+                    delete(hand);
+                    evictions++;
+                    return;
+                }
+            }
+            hand = (hand + 1) & mask;
+        }
+    }
+
+    private void delete(int index) {
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (used[next]) {
+            int home = slot(keys[next]);
+            // Move the entry back if the hole lies on its probe path from its home slot
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                referenced[hole] = referenced[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[hole] = false;
+        referenced[hole] = false;
+        size--;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Drop every cached value.
+     */
+    public void clear() {
+        if (size > 0) invalidations += size;
+        Arrays.fill(used, false);
+        Arrays.fill(referenced, false);
+        size = 0;
+        hand = 0;
+        pendingCount = 0;
+        pendingOverflow = false;
+    }
+
+    public int size() { return size; }
+    public int capacity() { return maxEntries; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    public long getInvalidations() { return invalidations; }
+}
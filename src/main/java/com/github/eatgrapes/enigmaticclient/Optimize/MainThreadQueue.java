@@ -0,0 +1,99 @@
+package com.github.eatgrapes.enigmaticclient.optimize;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hand-off queue from worker threads to the client thread.
+ * <p>
+ * Workers compute results off-thread and {@link #post} a small apply step; the client thread runs those steps
+ * in {@link #drain} under a time budget, so Minecraft state is only ever touched on the client thread and a
+ * large backlog is spread over several ticks instead of stalling one.
+ * <p>
+ * The queue is a lock-free multi-producer single-consumer linked queue: producers swap the head with one atomic
+ * operation and only the client thread ever walks the tail.
+ */
+public final class MainThreadQueue {
+    private static final MainThreadQueue INSTANCE = new MainThreadQueue();
+
+    private final AtomicReference<Node> head;
+    private Node tail; // Only touched by the consuming client thread
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong overBudgetDrains = new AtomicLong();
+
+    private MainThreadQueue() {
+        Node stub = new Node(null);
+        head = new AtomicReference<>(stub);
+        tail = stub;
+    }
+
+    public static MainThreadQueue getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queue work to run on the client thread. Safe to call from any thread.
+     */
+    public void post(Runnable task) {
+        Node node = new Node(task);
+        pending.incrementAndGet();
+        Node previous = head.getAndSet(node);
+        previous.next = node;
+    }
+
+    /**
+     * Run queued work on the client thread until the queue is empty or the budget is spent.
+     * At least one task runs per call so the queue always makes progress.
+     * @param budgetNanos Time budget for this drain.
+     * @return Number of tasks run.
+     */
+    public int drain(long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        int count = 0;
+        Runnable task;
+        while ((task = poll()) != null) {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+            count++;
+            if (System.nanoTime() >= deadline) {
+                if (pending.get() > 0) overBudgetDrains.incrementAndGet();
+                break;
+            }
+        }
+        applied.addAndGet(count);
+        return count;
+    }
+
+    private Runnable poll() {
+        Node next = tail.next;
+        if (next == null) return null;
+        tail = next;
+        Runnable task = next.task;
+        next.task = null;
+        pending.decrementAndGet();
+        return task;
+    }
+
+    public int getPending() { return pending.get(); }
+    public long getApplied() { return applied.get(); }
+
+    /**
+     * Number of drains that ran out of budget with work still queued.
+     */
+    public long getOverBudgetDrains() { return overBudgetDrains.get(); }
+
+    private static final class Node {
+        Runnable task;
+        volatile Node next;
+
+        Node(Runnable task) {
+            this.task = task;
+        }
+    }
+}
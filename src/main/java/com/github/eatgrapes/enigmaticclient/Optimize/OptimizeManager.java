@@ -1,262 +1,168 @@
 package com.github.eatgrapes.enigmaticclient.optimize;
 
+import com.github.eatgrapes.enigmaticclient.init.MixinSwitches;
+import com.github.eatgrapes.enigmaticclient.init.StartupProfiler;
 import net.minecraft.client.Minecraft;
-import net.minecraft.client.multiplayer.ChunkProviderClient;
-import net.minecraft.client.renderer.GlStateManager;
-import net.minecraft.client.renderer.texture.TextureManager;
-import net.minecraft.client.resources.IResourceManager;
-import net.minecraft.client.resources.SimpleReloadableResourceManager;
-import net.minecraft.client.resources.model.ModelResourceLocation;
-import net.minecraft.entity.Entity;
-import net.minecraft.util.BlockPos;
-import net.minecraft.util.ResourceLocation;
+import com.github.eatgrapes.enigmaticclient.mixin.AccessorChunkProviderClient;
+import com.github.eatgrapes.enigmaticclient.network.PacketInterceptors;
+import net.minecraft.network.play.server.S21PacketChunkData;
+import net.minecraft.network.play.server.S26PacketMapChunkBulk;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraftforge.common.MinecraftForge;
-import net.minecraftforge.fml.common.event.FMLInitializationEvent;
-import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
-import net.minecraft.client.renderer.entity.RenderManager;
-import net.minecraft.client.renderer.texture.ITextureObject;
-import net.minecraft.client.renderer.texture.SimpleTexture;
-import net.minecraft.block.Block;
-import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
-import java.lang.reflect.Field;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
-import net.minecraft.client.renderer.culling.Frustum;
-import net.minecraft.client.renderer.culling.ICamera;
 
 /**
  * Optimization manager for improving Minecraft 1.8.9 Forge PVP client performance.
  * Handles CPU/GPU optimization, memory management, and device-specific tweaks.
  */
 public class OptimizeManager {
-    // Thread pools for different tasks, dynamically sized based on CPU cores
-    private static ExecutorService MOD_INIT_POOL = Executors.newCachedThreadPool();
-    private static ExecutorService RESOURCE_LOAD_POOL = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
-    private static ExecutorService RENDER_POOL = Executors.newFixedThreadPool(Math.min(2, Runtime.getRuntime().availableProcessors()));
-    private static ExecutorService WORLD_LOAD_POOL = Executors.newFixedThreadPool(2);
+    // Shared bounded worker pool, see TaskScheduler
+    private static final TaskScheduler SCHEDULER = TaskScheduler.getInstance();
+    // Worker results are applied on the client thread within this budget per tick
+    private static final MainThreadQueue MAIN_THREAD = MainThreadQueue.getInstance();
+    private static final long MAIN_THREAD_BUDGET_NANOS = 2_000_000L;
 
-    // Caches for reducing redundant resource loading
-    private static final Map<String, ModelResourceLocation> blockModelCache = new ConcurrentHashMap<>();
-    private static final Map<ResourceLocation, ITextureObject> textureCache = new ConcurrentHashMap<>();
-    private static final Map<Long, Float> lightingCache = new ConcurrentHashMap<>();
+    // Keeps GPU texture memory under the configured budget
+    private static final TextureResidencyManager TEXTURES = TextureResidencyManager.getInstance();
+    // Deferred texture uploads after a resource reload, spread over frames within this budget
+    private static final ResourceReloadPipeline RELOADS = ResourceReloadPipeline.getInstance();
+    private static final long RELOAD_UPLOAD_BUDGET_NANOS = 4_000_000L;
 
-    // FPS tracking for dynamic render distance
-    private static final AtomicInteger frameCounter = new AtomicInteger(0);
-    private static long lastFpsCheckTime = System.currentTimeMillis();
-    private static final int TARGET_FPS = 60;
+    // Chunk packets are decoded on workers and installed on the client thread
+    private static final ChunkDecoder CHUNKS = ChunkDecoder.getInstance();
+
+    // Frame-time driven render distance
+    private final RenderDistanceController renderDistanceController = new RenderDistanceController();
+
+    // Per-tick entity snapshot and the latest analysis computed from it
+    private static final EntitySnapshotManager SNAPSHOTS = EntitySnapshotManager.getInstance();
+    private volatile EntityAnalysis entityAnalysis = EntityAnalysis.EMPTY;
+    private long clientTicks = 0;
+
+    private boolean startupReported = false;
 
     private final Minecraft mc = Minecraft.getMinecraft();
 
     public OptimizeManager() {
         MinecraftForge.EVENT_BUS.register(this);
+        // Only MixinNetHandlerPlayClient claims decoded chunks; without it the work would pile up unused
+        if (MixinSwitches.isEnabled("MixinNetHandlerPlayClient")) {
+            PacketInterceptors.inbound().register(S21PacketChunkData.class, CHUNKS::onChunkData);
+            PacketInterceptors.inbound().register(S26PacketMapChunkBulk.class, CHUNKS::onMapChunkBulk);
+        }
         adjustForDevice();
     }
 
-    /**
-     * Pre-initialization: Start async tasks for resource caching.
-     */
-    @SubscribeEvent
-    public void onPreInit(FMLPreInitializationEvent event) {
-        MOD_INIT_POOL.submit(this::cacheBlockModels);
-        MOD_INIT_POOL.submit(this::cacheTextures);
-        hookResourceLoading();
-    }
-
-    /**
-     * Initialization: Perform parallel mod initialization.
-     */
-    @SubscribeEvent
-    public void onInit(FMLInitializationEvent event) {
-        parallelInitMods();
-    }
-
     /**
      * Client tick event: Optimize entity updates, rendering, and resource cleanup.
      */
     @SubscribeEvent
     public void onClientTick(TickEvent.ClientTickEvent event) {
-        if (event.phase == TickEvent.Phase.START && mc.theWorld != null) {
-            RESOURCE_LOAD_POOL.submit(this::optimizeEntityUpdates);
-            RENDER_POOL.submit(this::optimizeRendering);
-            RESOURCE_LOAD_POOL.submit(this::cleanUnusedResources);
-            adjustRenderDistance();
-            WORLD_LOAD_POOL.submit(this::asyncWorldLoading);
-            optimizeLighting();
-        }
-    }
-
-    /**
-     * Cache block models asynchronously to speed up startup.
-     */
-    private void cacheBlockModels() {
-        RESOURCE_LOAD_POOL.submit(() -> {
-            for (Block block : Block.blockRegistry) {
-                String blockName = block.getUnlocalizedName().replace("tile.", "");
-                blockModelCache.computeIfAbsent(blockName, k -> new ModelResourceLocation(blockName, "inventory"));
+        if (event.phase == TickEvent.Phase.END) {
+            CHUNKS.tick();
+            // Entities have moved for this tick, so this is the point to copy them
+            if (mc.theWorld != null && mc.thePlayer != null) {
+                analyzeEntities();
+            } else if (entityAnalysis != EntityAnalysis.EMPTY) {
+                SNAPSHOTS.clear();
+                entityAnalysis = EntityAnalysis.EMPTY;
+                CHUNKS.clear();
             }
-        });
-    }
-
-    /**
-     * Cache and compress textures asynchronously for faster loading and lower memory usage.
-     */
-    private void cacheTextures() {
-        TextureManager textureManager = mc.getTextureManager();
-        ResourceLocation[] textures = {
-            new ResourceLocation("minecraft:textures/blocks/dirt.png"),
-            new ResourceLocation("minecraft:textures/blocks/stone.png")
-        };
-        for (ResourceLocation location : textures) {
-            RESOURCE_LOAD_POOL.submit(() -> preloadCompressedTexture(textureManager, location));
+            return;
         }
-    }
 
-    /**
-     * Preload texture with S3TC compression if supported.
-     */
-    private void preloadCompressedTexture(TextureManager textureManager, ResourceLocation location) {
-        if (!textureCache.containsKey(location)) {
-            ITextureObject texture = new SimpleTexture(location);
-            textureManager.loadTexture(location, texture);
-            textureCache.put(location, texture);
+        if (!startupReported) {
+            reportStartup();
         }
-    }
 
-    /**
-     * Hook into resource manager to reload textures asynchronously.
-     */
-    private void hookResourceLoading() {
-        IResourceManager resourceManager = mc.getResourceManager();
-        if (resourceManager instanceof SimpleReloadableResourceManager) {
-            ((SimpleReloadableResourceManager) resourceManager).registerReloadListener(manager -> {
-                RESOURCE_LOAD_POOL.submit(this::cacheTextures);
-            });
+        // Apply finished worker results first, bounded so a large backlog can't stall the tick
+        MAIN_THREAD.drain(MAIN_THREAD_BUDGET_NANOS);
+
+        if (mc.theWorld != null) {
+            asyncWorldLoading();
         }
     }
 
     /**
-     * Perform parallel initialization of mod resources.
+     * Render tick event: Feed frame times to the render distance controller and upload reloaded textures before
+     * the frame; enforce the texture budget and show reload progress once it is drawn.
      */
-    private void parallelInitMods() {
-        MOD_INIT_POOL.submit(() -> {
-            mc.getTextureManager().getTexture(new ResourceLocation("minecraft:textures/blocks/dirt.png"));
-        });
-        MOD_INIT_POOL.shutdown();
+    @SubscribeEvent
+    public void onRenderTick(TickEvent.RenderTickEvent event) {
+        if (event.phase == TickEvent.Phase.START) {
+            renderDistanceController.onFrame();
+            RELOADS.uploadPending(RELOAD_UPLOAD_BUDGET_NANOS);
+        } else {
+            TEXTURES.onFrame();
+            RELOADS.renderProgress();
+        }
     }
 
     /**
-     * Optimize entity updates using parallel streams to leverage multi-core CPUs.
+     * The first client tick marks the end of startup: stop the profiler and write its trace off-thread.
      */
-    private void optimizeEntityUpdates() {
-        List<Entity> entities = mc.theWorld.loadedEntityList;
-        entities.parallelStream().forEach(entity -> {
-            if (entity.posX != entity.prevPosX || entity.posY != entity.prevPosY || entity.posZ != entity.prevPosZ) {
-                entity.onUpdate();
-            }
-        });
-    }
-
-/**
- * Optimize rendering by batching entities and using multi-threaded rendering.
- */
-private void optimizeRendering() {
-    RenderManager renderManager = mc.getRenderManager();
-    List<Entity> entities = mc.theWorld.loadedEntityList;
-    int batchSize = entities.size() / Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
-
-    Frustum camera = new Frustum();
-    camera.setPosition(
-        mc.thePlayer.posX,
-        mc.thePlayer.posY,
-        mc.thePlayer.posZ
-    );
-
-    for (int i = 0; i < Math.max(1, Runtime.getRuntime().availableProcessors() / 2); i++) {
-        final int start = i * batchSize;
-        final int end = (i == Math.max(1, Runtime.getRuntime().availableProcessors() / 2) - 1) ? entities.size() : start + batchSize;
-        RENDER_POOL.submit(() -> {
-            GlStateManager.pushMatrix();
-            for (int j = start; j < end; j++) {
-                Entity entity = entities.get(j);
-                if (renderManager.shouldRender(entity, camera, mc.thePlayer.posX, mc.thePlayer.posY, mc.thePlayer.posZ)) {
-                    renderManager.renderEntitySimple(entity, 0.0F);
-                }
-            }
-            GlStateManager.popMatrix();
-        });
+    private void reportStartup() {
+        startupReported = true;
+        long millis = StartupProfiler.finish();
+        if (millis >= 0) {
+            System.out.println("[Enigmatic] Startup finished " + millis + " ms after JVM start");
+            SCHEDULER.submit(TaskPriority.BACKGROUND, "startup:trace", StartupProfiler::writeTrace);
+        }
     }
-}
 
     /**
-     * Clean up unused resources to reduce memory usage.
+     * Snapshot the entity list once and analyse the copy off-thread. The world already ticks every entity, so
+     * the analysis only publishes motion, distance order and range culling results for others to read.
      */
-    private void cleanUnusedResources() {
-        textureCache.entrySet().removeIf(entry -> {
-            boolean unused = mc.getTextureManager().getTexture(entry.getKey()) == null;
-            if (unused) {
-                GlStateManager.deleteTexture(entry.getValue().getGlTextureId());
+    private void analyzeEntities() {
+        SNAPSHOTS.capture(mc.theWorld.loadedEntityList, mc.thePlayer, ++clientTicks);
+        double renderRange = mc.gameSettings.renderDistanceChunks * 16.0;
+        SCHEDULER.submit(TaskPriority.TICK_CRITICAL, "optimize:entities", () -> {
+            EntitySnapshot snapshot = SNAPSHOTS.acquire();
+            if (snapshot == null) return;
+            try {
+                EntityAnalysis analysis = EntityAnalysis.compute(snapshot, renderRange);
+                entityAnalysis = analysis;
+                CullingEngine.getInstance().publishAnalysis(analysis);
+            } finally {
+                SNAPSHOTS.release(snapshot);
             }
-            return unused;
         });
     }
 
-    /**
-     * Adjust render distance dynamically based on FPS.
-     */
-    private void adjustRenderDistance() {
-        frameCounter.incrementAndGet();
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastFpsCheckTime >= 1000) {
-            int fps = frameCounter.get();
-            frameCounter.set(0);
-            lastFpsCheckTime = currentTime;
-
-            int currentRenderDistance = mc.gameSettings.renderDistanceChunks;
-            if (fps < TARGET_FPS - 10 && currentRenderDistance > 2) {
-                mc.gameSettings.renderDistanceChunks--;
-            } else if (fps > TARGET_FPS + 10 && currentRenderDistance < 16) {
-                mc.gameSettings.renderDistanceChunks++;
-            }
-        }
-    }
-
     /**
      * Load world chunks asynchronously to reduce main thread blocking.
      */
     private void asyncWorldLoading() {
         if (mc.theWorld != null) {
-            ChunkProviderClient chunkProvider = (ChunkProviderClient) mc.theWorld.getChunkProvider();
-            try {
-                Field chunkMappingField = ChunkProviderClient.class.getDeclaredField("chunkMapping");
-                chunkMappingField.setAccessible(true);
-                Long2ObjectMap<Chunk> chunkMapping = (Long2ObjectMap<Chunk>) chunkMappingField.get(chunkProvider);
-                for (Chunk chunk : chunkMapping.values()) {
-                    if (!chunk.isLoaded()) {
-                        WORLD_LOAD_POOL.submit(chunk::onChunkLoad);
-                    }
+            // Copy on the client thread, which is the only one allowed to read the live chunk list
+            Chunk[] chunks = ((AccessorChunkProviderClient) mc.theWorld.getChunkProvider()).getChunkListing().toArray(new Chunk[0]);
+            SCHEDULER.submit(TaskPriority.BACKGROUND, "optimize:worldLoading", () -> {
+                List<Chunk> unloaded = new ArrayList<>();
+                for (Chunk chunk : chunks) {
+                    if (!chunk.isLoaded()) unloaded.add(chunk);
                 }
-            } catch (NoSuchFieldException | IllegalAccessException e) {
-                e.printStackTrace();
-            }
+                return unloaded.isEmpty() ? null : unloaded;
+            }, unloaded -> {
+                for (Chunk chunk : unloaded) {
+                    if (!chunk.isLoaded()) chunk.onChunkLoad();
+                }
+            });
         }
     }
 
+    public RenderDistanceController getRenderDistanceController() {
+        return renderDistanceController;
+    }
+
     /**
-     * Optimize lighting calculations by caching results.
+     * Latest entity analysis. Safe to read from any thread; the result itself is immutable.
      */
-    private void optimizeLighting() {
-        if (mc.theWorld != null) {
-            BlockPos playerPos = new BlockPos((int) mc.thePlayer.posX, (int) mc.thePlayer.posY, (int) mc.thePlayer.posZ);
-            long posKey = playerPos.toLong();
-            lightingCache.computeIfAbsent(posKey, k -> mc.theWorld.getLightBrightness(playerPos));
-        }
+    public EntityAnalysis getEntityAnalysis() {
+        return entityAnalysis;
     }
 
     /**
@@ -266,19 +172,14 @@ private void optimizeRendering() {
         String os = System.getProperty("os.name").toLowerCase();
         boolean isMobile = os.contains("android") || os.contains("ios");
         if (isMobile) {
-            RENDER_POOL.shutdown();
-            RENDER_POOL = Executors.newFixedThreadPool(1); // Single-threaded rendering for mobile
             mc.gameSettings.renderDistanceChunks = Math.min(4, mc.gameSettings.renderDistanceChunks);
         }
     }
 
     /**
-     * Shutdown all thread pools cleanly.
+     * Shutdown the shared worker pool cleanly.
      */
     public void shutdown() {
-        MOD_INIT_POOL.shutdownNow();
-        RESOURCE_LOAD_POOL.shutdownNow();
-        RENDER_POOL.shutdownNow();
-        WORLD_LOAD_POOL.shutdownNow();
+        SCHEDULER.shutdown();
     }
 }
\ No newline at end of file
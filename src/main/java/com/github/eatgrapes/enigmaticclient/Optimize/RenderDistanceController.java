@@ -0,0 +1,216 @@
+package com.github.eatgrapes.enigmaticclient.optimize;
+
+import com.github.eatgrapes.enigmaticclient.config.OptimizeConfig;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.settings.GameSettings;
+import org.lwjgl.opengl.Display;
+
+import java.util.Arrays;
+
+/**
+ * Adapts the render distance to measured frame times.
+ * <p>
+ * Frame times come from the render loop and are kept in a ring buffer. Every evaluation compares the p95 frame
+ * time against the target with a hysteresis band: only several evaluations in a row outside the band produce a
+ * change, and each change is followed by a cooldown so the renderer rebuild it causes does not feed back into
+ * the next decision. Changing {@link GameSettings#renderDistanceChunks} makes the next frame call
+ * {@code RenderGlobal.loadRenderers}, so renderers are only rebuilt once a change has proven stable.
+ * <p>
+ * The distance the user chose is remembered when the controller takes over and is the one written to
+ * options.txt: {@link #beforeSaveOptions} swaps it back in for the save. Moving the slider while the controller is
+ * active makes the new value the user's choice. Turning the feature off or leaving the world restores it.
+ */
+public final class RenderDistanceController {
+    private static final int WINDOW = 120;
+    private static final long EVALUATION_INTERVAL_NANOS = 500_000_000L;
+    private static final long COOLDOWN_NANOS = 5_000_000_000L;
+    private static final int STABLE_EVALUATIONS = 3;
+    // Hysteresis band around the target frame time
+    private static final float SLOW_FACTOR = 1.2f;
+    private static final float FAST_FACTOR = 0.75f;
+    // GameSettings uses this framerate limit to mean "unlimited"
+    private static final int UNLIMITED_FRAMERATE = 260;
+    private static final int HISTORY = 8;
+
+    private final Minecraft mc = Minecraft.getMinecraft();
+    private final float[] frameMillis = new float[WINDOW];
+    private final float[] sorted = new float[WINDOW];
+    private int frameCount;
+    private int frameIndex;
+    private long lastFrameNanos;
+    private long lastEvaluationNanos;
+    private long cooldownUntilNanos;
+
+    // The user's own distance while the controller is active, -1 otherwise
+    private int userDistance = -1;
+    // The distance the controller last set
+    private int appliedDistance;
+    private boolean savingUserDistance;
+
+    private int streakDirection;
+    private int streakLength;
+
+    // Exposed for tuning through .eni render
+    private volatile float p50Millis;
+    private volatile float p95Millis;
+    private volatile float targetMillis;
+    private final Decision[] history = new Decision[HISTORY];
+    private int historyIndex;
+
+    /**
+     * Record the start of a frame. Called from the render tick on the client thread.
+     */
+    public void onFrame() {
+        long now = System.nanoTime();
+        if (lastFrameNanos != 0) {
+            frameMillis[frameIndex] = (now - lastFrameNanos) / 1_000_000f;
+            frameIndex = (frameIndex + 1) % WINDOW;
+            if (frameCount < WINDOW) frameCount++;
+        }
+        lastFrameNanos = now;
+
+        if (now - lastEvaluationNanos >= EVALUATION_INTERVAL_NANOS) {
+            lastEvaluationNanos = now;
+            evaluate(now);
+        }
+    }
+
+    private void evaluate(long now) {
+        if (mc.theWorld == null || !OptimizeConfig.isAdaptiveRenderDistance()) {
+            restoreUserDistance();
+            reset();
+            return;
+        }
+        // Need a full window of comparable frames: focused, and not right after a change
+        if (!Display.isActive()) {
+            reset();
+            return;
+        }
+        int current = mc.gameSettings.renderDistanceChunks;
+        if (userDistance < 0 || current != appliedDistance) {
+            // Taking over, or the user moved the slider since the last change
+            userDistance = current;
+            appliedDistance = current;
+        }
+        if (frameCount < WINDOW / 2 || now < cooldownUntilNanos) return;
+
+        System.arraycopy(frameMillis, 0, sorted, 0, frameCount);
+        Arrays.sort(sorted, 0, frameCount);
+        p50Millis = sorted[(int) (frameCount * 0.50f)];
+        p95Millis = sorted[Math.min(frameCount - 1, (int) (frameCount * 0.95f))];
+
+        int targetFps = OptimizeConfig.getTargetFps();
+        int limit = mc.gameSettings.limitFramerate;
+        if (limit < UNLIMITED_FRAMERATE) targetFps = Math.min(targetFps, limit);
+        targetMillis = 1000f / Math.max(1, targetFps);
+
+        int direction = 0;
+        if (p95Millis > targetMillis * SLOW_FACTOR) {
+            direction = -1;
+        } else if (p95Millis < targetMillis * FAST_FACTOR) {
+            direction = 1;
+        }
+
+        if (direction == 0 || direction != streakDirection) {
+            streakDirection = direction;
+            streakLength = direction == 0 ? 0 : 1;
+            return;
+        }
+        if (++streakLength < STABLE_EVALUATIONS) return;
+
+        int next = Math.max(OptimizeConfig.getMinRenderDistance(),
+            Math.min(OptimizeConfig.getMaxRenderDistance(), current + direction));
+        streakLength = 0;
+        if (next == current) return;
+
+        mc.gameSettings.renderDistanceChunks = next;
+        appliedDistance = next;
+        history[historyIndex] = new Decision(System.currentTimeMillis(), current, next, p50Millis, p95Millis);
+        historyIndex = (historyIndex + 1) % HISTORY;
+
+        // Drop frames measured at the old distance and let the renderer rebuild settle
+        cooldownUntilNanos = now + COOLDOWN_NANOS;
+        frameCount = 0;
+        frameIndex = 0;
+    }
+
+    /**
+     * Give the user's distance back, e.g. when the feature is turned off. Client thread.
+     */
+    public void restoreUserDistance() {
+        if (userDistance < 0) return;
+        if (mc.gameSettings.renderDistanceChunks == appliedDistance) mc.gameSettings.renderDistanceChunks = userDistance;
+        userDistance = -1;
+    }
+
+    /**
+     * Put the user's distance in place while the options are written, so the adapted one is never saved.
+     */
+    public void beforeSaveOptions() {
+        if (userDistance < 0 || mc.gameSettings.renderDistanceChunks != appliedDistance) return;
+        mc.gameSettings.renderDistanceChunks = userDistance;
+        savingUserDistance = true;
+    }
+
+    public void afterSaveOptions() {
+        if (!savingUserDistance) return;
+        savingUserDistance = false;
+        mc.gameSettings.renderDistanceChunks = appliedDistance;
+    }
+
+    /**
+     * The distance the user chose, which differs from the current one while the controller has adapted it.
+     */
+    public int getUserDistance() {
+        return userDistance >= 0 ? userDistance : mc.gameSettings.renderDistanceChunks;
+    }
+
+    private void reset() {
+        streakDirection = 0;
+        streakLength = 0;
+        frameCount = 0;
+        frameIndex = 0;
+    }
+
+    public float getP50Millis() { return p50Millis; }
+    public float getP95Millis() { return p95Millis; }
+    public float getTargetMillis() { return targetMillis; }
+
+    /**
+     * Direction of the evaluations in a row so far: -1 toward a shorter distance, 1 toward a longer one.
+     */
+    public int getStreakDirection() { return streakDirection; }
+    public int getStreakLength() { return streakLength; }
+
+    /**
+     * Recent render distance changes, newest first.
+     */
+    public Decision[] getHistory() {
+        Decision[] result = new Decision[HISTORY];
+        int count = 0;
+        for (int i = 1; i <= HISTORY; i++) {
+            Decision decision = history[(historyIndex - i + HISTORY) % HISTORY];
+            if (decision != null) result[count++] = decision;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * One applied render distance change and the frame times that caused it.
+     */
+    public static final class Decision {
+        public final long timeMillis;
+        public final int from;
+        public final int to;
+        public final float p50Millis;
+        public final float p95Millis;
+
+        Decision(long timeMillis, int from, int to, float p50Millis, float p95Millis) {
+            this.timeMillis = timeMillis;
+            this.from = from;
+            this.to = to;
+            this.p50Millis = p50Millis;
+            this.p95Millis = p95Millis;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.github.eatgrapes.enigmaticclient.optimize;
+
+import com.github.eatgrapes.enigmaticclient.init.StartupProfiler;
+import com.github.eatgrapes.enigmaticclient.mixin.AccessorSimpleTexture;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.ScaledResolution;
+import net.minecraft.client.renderer.texture.ITextureObject;
+import net.minecraft.client.renderer.texture.SimpleTexture;
+import net.minecraft.client.renderer.texture.TextureManager;
+import net.minecraft.client.renderer.texture.TextureUtil;
+import net.minecraft.client.resources.IResource;
+import net.minecraft.client.resources.IResourceManager;
+import net.minecraft.client.resources.data.IMetadataSection;
+import net.minecraft.client.resources.data.TextureMetadataSection;
+import net.minecraft.util.ResourceLocation;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Moves image decoding out of resource reloads.
+ * <p>
+ * Two stages run on the fork-join pool:
+ * <ul>
+ *     <li>Atlas sprites are fetched and decoded in parallel before the atlas loads them, and the atlas then
+ *     receives the decoded images instead of reading each PNG itself. Stitching and uploading are unchanged.</li>
+ *     <li>Plain {@link SimpleTexture}s are not reloaded inline by the {@code TextureManager}. They are decoded in
+ *     the background and uploaded in their original order on the render thread under a per-frame budget, so the
+ *     reload returns quickly and the remaining uploads trickle in over the next frames with a progress line.</li>
+ * </ul>
+ * Anything that fails to decode in the background goes through the vanilla path again, so errors and missing
+ * texture fallbacks behave exactly as before. A new reload cancels uploads still pending from the previous one.
+ */
+public final class ResourceReloadPipeline {
+    private static final ResourceReloadPipeline INSTANCE = new ResourceReloadPipeline();
+
+    private final Minecraft mc = Minecraft.getMinecraft();
+
+    // Sprites decoded ahead of the current atlas load, render thread only
+    private final Map<ResourceLocation, PrefetchedResource> atlasPrefetch = new HashMap<>();
+    // Sprite cache key for the current packs, computed on first use after each reload began
+    private String spriteCacheHash;
+
+    // Deferred texture uploads for the current reload, render thread only
+    private final List<PendingUpload> uploads = new ArrayList<>();
+    private int uploadIndex;
+    private int generation;
+    private long reloadStartNanos;
+    private long listenersMillis;
+
+    private ResourceReloadPipeline() {
+    }
+
+    public static ResourceReloadPipeline getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start of a resource reload. Drops uploads left over from the previous reload.
+     */
+    public void beginReload() {
+        generation++;
+        spriteCacheHash = null;
+        uploads.clear();
+        uploadIndex = 0;
+        reloadStartNanos = System.nanoTime();
+        StartupProfiler.begin("reload", "Resource reload");
+    }
+
+    /**
+     * End of a resource reload, also when it threw. After a completed reload, deferred uploads continue over
+     * the next frames.
+     * @param completed Whether all reload listeners ran.
+     */
+    public void endReload(boolean completed) {
+        StartupProfiler.end();
+        listenersMillis = (System.nanoTime() - reloadStartNanos) / 1_000_000L;
+        if (!completed) {
+            System.out.println("[Enigmatic] Resource reload failed after " + listenersMillis + " ms");
+        } else if (uploads.isEmpty()) {
+            System.out.println("[Enigmatic] Resource reload finished in " + listenersMillis + " ms");
+        }
+    }
+
+    // ================================== Atlas sprites ================================== //
+
+    /**
+     * Fetch and decode the given sprite images in parallel. The calling thread waits and helps.
+     * Pixels come from the {@link SpriteDiskCache} when it has a file for the current packs; otherwise the PNGs
+     * are decoded and the cache file is written in the background.
+     */
+    public void prefetchSprites(IResourceManager resourceManager, String atlasName, List<ResourceLocation> locations) {
+        atlasPrefetch.clear();
+        StartupProfiler.begin("reload", "Prefetch sprites " + atlasName);
+        SpriteDiskCache diskCache = SpriteDiskCache.getInstance();
+        // Atlases also load outside a reload (e.g. at startup), where the packs of the last reload still apply
+        if (spriteCacheHash == null) spriteCacheHash = diskCache.contentHash();
+        String contentHash = spriteCacheHash;
+        SpriteDiskCache.MappedSprites cached = diskCache.open(atlasName, contentHash);
+
+        PrefetchedResource[] results = new PrefetchedResource[locations.size()];
+        try {
+            IntStream.range(0, results.length).parallel()
+                .forEach(i -> results[i] = decode(resourceManager, locations.get(i), cached));
+        } finally {
+            // Pixels are copied out, so the file does not need to stay mapped (or locked)
+            if (cached != null) cached.close();
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) atlasPrefetch.put(locations.get(i), results[i]);
+        }
+
+        if (cached == null) {
+            BufferedImage[] images = new BufferedImage[results.length];
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null) images[i] = results[i].image;
+            }
+            diskCache.store(atlasName, contentHash, locations, images);
+        }
+        StartupProfiler.end();
+    }
+
+    /**
+     * Replacement for {@link IResourceManager#getResource} while an atlas loads.
+     */
+    public IResource getResource(IResourceManager resourceManager, ResourceLocation location) throws IOException {
+        PrefetchedResource prefetched = atlasPrefetch.remove(location);
+        return prefetched != null ? prefetched : resourceManager.getResource(location);
+    }
+
+    /**
+     * Replacement for {@link TextureUtil#readBufferedImage} while an atlas loads.
+     */
+    public BufferedImage readBufferedImage(InputStream stream) throws IOException {
+        if (stream instanceof DecodedImageStream) return ((DecodedImageStream) stream).image;
+        return TextureUtil.readBufferedImage(stream);
+    }
+
+    /**
+     * Drop prefetched sprites the atlas did not ask for.
+     */
+    public void endAtlas() {
+        atlasPrefetch.clear();
+    }
+
+    private static PrefetchedResource decode(IResourceManager resourceManager, ResourceLocation location) {
+        return decode(resourceManager, location, null);
+    }
+
+    private static PrefetchedResource decode(IResourceManager resourceManager, ResourceLocation location,
+                                             SpriteDiskCache.MappedSprites cached) {
+        try {
+            // The resource is still opened for its metadata and to confirm it exists in the current packs
+            IResource resource = resourceManager.getResource(location);
+            BufferedImage image = cached != null ? cached.get(location) : null;
+            if (cached != null) SpriteDiskCache.getInstance().recordLookup(image != null);
+            if (image != null) {
+                resource.getInputStream().close();
+            } else {
+                image = TextureUtil.readBufferedImage(resource.getInputStream());
+            }
+            if (resource.hasMetadata()) {
+                // Parsed once here; the resource caches the section for the render thread
+                resource.getMetadata("texture");
+                resource.getMetadata("animation");
+            }
+            return new PrefetchedResource(resource, image);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    // ================================== Texture uploads ================================== //
+
+    /**
+     * Take over the reload of a texture from the {@code TextureManager} if it can be decoded off-thread.
+     * @return Whether the texture will be reloaded by this pipeline.
+     */
+    public boolean deferReload(ResourceLocation location, ITextureObject texture) {
+        // Subclasses such as downloaded skins load differently
+        if (texture.getClass() != SimpleTexture.class) return false;
+
+        IResourceManager resourceManager = mc.getResourceManager();
+        ResourceLocation source = ((AccessorSimpleTexture) texture).getTextureLocation();
+        PendingUpload upload = new PendingUpload(location, (SimpleTexture) texture);
+        upload.decoded = CompletableFuture.supplyAsync(() -> decode(resourceManager, source), ForkJoinPool.commonPool());
+        uploads.add(upload);
+        return true;
+    }
+
+    /**
+     * Upload decoded textures in order until the budget is spent. Stops at the first texture still decoding.
+     * Called once per frame on the render thread.
+     */
+    public void uploadPending(long budgetNanos) {
+        if (uploadIndex >= uploads.size()) return;
+
+        int startGeneration = generation;
+        long deadline = System.nanoTime() + budgetNanos;
+        TextureManager textureManager = mc.getTextureManager();
+        while (uploadIndex < uploads.size() && generation == startGeneration) {
+            PendingUpload upload = uploads.get(uploadIndex);
+            if (!upload.decoded.isDone()) break;
+            uploadIndex++;
+
+            // Deleted or replaced while it was decoding
+            if (textureManager.getTexture(upload.location) != upload.texture) continue;
+            PrefetchedResource decoded = upload.decoded.join();
+            if (decoded == null) {
+                textureManager.loadTexture(upload.location, upload.texture);
+            } else {
+                upload(upload, decoded);
+                TextureResidencyManager.getInstance().onTextureLoaded(upload.location, upload.texture);
+            }
+            if (System.nanoTime() >= deadline) break;
+        }
+
+        if (uploadIndex >= uploads.size() && generation == startGeneration) {
+            long totalMillis = (System.nanoTime() - reloadStartNanos) / 1_000_000L;
+            System.out.println("[Enigmatic] Resource reload finished in " + totalMillis + " ms ("
+                + listenersMillis + " ms blocking, " + uploads.size() + " deferred textures)");
+            uploads.clear();
+            uploadIndex = 0;
+        }
+    }
+
+    private void upload(PendingUpload upload, PrefetchedResource decoded) {
+        boolean blur = false;
+        boolean clamp = false;
+        if (decoded.hasMetadata()) {
+            try {
+                TextureMetadataSection section = decoded.getMetadata("texture");
+                if (section != null) {
+                    blur = section.getTextureBlur();
+                    clamp = section.getTextureClamp();
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        upload.texture.deleteGlTexture();
+        TextureUtil.uploadTextureImageAllocate(upload.texture.getGlTextureId(), decoded.image, blur, clamp);
+    }
+
+    /**
+     * Draw the upload progress while deferred textures are pending. Called at the end of the frame.
+     */
+    public void renderProgress() {
+        if (uploadIndex >= uploads.size() || mc.fontRendererObj == null) return;
+        mc.entityRenderer.setupOverlayRendering();
+        ScaledResolution resolution = new ScaledResolution(mc);
+        String text = "Reloading textures " + uploadIndex + "/" + uploads.size();
+        mc.fontRendererObj.drawStringWithShadow(text,
+            resolution.getScaledWidth() - mc.fontRendererObj.getStringWidth(text) - 2, 2, 0xFFFFFF);
+    }
+
+    public boolean isReloading() { return uploadIndex < uploads.size(); }
+    public int getPendingUploads() { return uploads.size() - uploadIndex; }
+
+    private static final class PendingUpload {
+        final ResourceLocation location;
+        final SimpleTexture texture;
+        CompletableFuture<PrefetchedResource> decoded;
+
+        PendingUpload(ResourceLocation location, SimpleTexture texture) {
+            this.location = location;
+            this.texture = texture;
+        }
+    }
+
+    /**
+     * A resource whose image has already been decoded. Metadata is served by the original resource.
+     */
+    private static final class PrefetchedResource implements IResource {
+        private final IResource resource;
+        private final BufferedImage image;
+
+        PrefetchedResource(IResource resource, BufferedImage image) {
+            this.resource = resource;
+            this.image = image;
+        }
+
+        @Override
+        public ResourceLocation getResourceLocation() {
+            return resource.getResourceLocation();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new DecodedImageStream(image);
+        }
+
+        @Override
+        public boolean hasMetadata() {
+            return resource.hasMetadata();
+        }
+
+        @Override
+        public <T extends IMetadataSection> T getMetadata(String sectionName) {
+            return resource.getMetadata(sectionName);
+        }
+
+        @Override
+        public String getResourcePackName() {
+            return resource.getResourcePackName();
+        }
+    }
+
+    /**
+     * Marker stream carrying a decoded image through code that expects to decode it from bytes.
+     */
+    private static final class DecodedImageStream extends InputStream {
+        final BufferedImage image;
+
+        DecodedImageStream(BufferedImage image) {
+            this.image = image;
+        }
+
+        @Override
+        public int read() {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.github.eatgrapes.enigmaticclient.optimize;
+
+import com.github.eatgrapes.enigmaticclient.mixin.AccessorAbstractResourcePack;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.resources.AbstractResourcePack;
+import net.minecraft.client.resources.IResourcePack;
+import net.minecraft.client.resources.ResourcePackRepository;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.common.Loader;
+import net.minecraftforge.fml.common.ModContainer;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of decoded atlas sprites, so repeat launches read raw pixels instead of decoding PNGs.
+ * <p>
+ * One file per atlas lives in {@code config/enigmaticclient/cache}, named after a SHA-1 of the active resource
+ * packs (name, size, modification time), the server pack and the mod list. Folder packs and mod directories
+ * contribute the path, size and modification time of every file inside, since editing a file does not touch the
+ * folder itself. Any change there produces a different name, so a stale file is never read; it is deleted once
+ * the new one is written. Files are memory mapped and sprites are copied straight from the mapping into the
+ * image's pixel array. Mappings are unmapped when the atlas is done with them or their file is replaced, so the
+ * files are not left locked.
+ * <p>
+ * Format, big-endian: magic, version, sprite count, then per sprite a UTF-8 name with a short length prefix,
+ * width, height and {@code width * height} ARGB ints.
+ */
+public final class SpriteDiskCache {
+    private static final SpriteDiskCache INSTANCE = new SpriteDiskCache();
+
+    private static final File CACHE_DIR = new File("config/enigmaticclient/cache");
+    private static final int MAGIC = 0x454E5343; // "ENSC"
+    private static final int VERSION = 1;
+    // Packs with very large textures are not worth mirroring on disk
+    private static final long MAX_FILE_BYTES = 256L * 1024 * 1024;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile long lastFileBytes;
+    // Mappings not closed yet, by cache file
+    private final Map<File, MappedSprites> openMappings = new ConcurrentHashMap<>();
+
+    private SpriteDiskCache() {
+    }
+
+    public static SpriteDiskCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Open the cache file for an atlas under the given packs and mods. The caller closes the result.
+     * @param contentHash From {@link #contentHash}.
+     * @return The mapped sprites, or null if there is no valid file for this combination.
+     */
+    public MappedSprites open(String atlasName, String contentHash) {
+        File file = cacheFile(atlasName, contentHash);
+        if (!file.isFile()) return null;
+
+        MappedByteBuffer buffer = null;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            MappedSprites sprites = MappedSprites.index(file, buffer);
+            MappedSprites previous = openMappings.put(file, sprites);
+            if (previous != null) previous.close();
+            return sprites;
+        } catch (IOException | RuntimeException e) {
+            if (buffer != null) unmap(buffer);
+            // Truncated or from an older format; it gets rewritten after this load
+            System.out.println("[Enigmatic] Discarding sprite cache " + file.getName() + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Write decoded sprites for an atlas in the background. Null images are skipped.
+     */
+    public void store(String atlasName, String contentHash, List<ResourceLocation> locations, BufferedImage[] images) {
+        File file = cacheFile(atlasName, contentHash);
+        TaskScheduler.getInstance().submit(TaskPriority.BACKGROUND, "optimize:spriteCache:" + atlasName,
+            () -> write(file, atlasPrefix(atlasName), locations, images));
+    }
+
+    private void write(File file, String prefix, List<ResourceLocation> locations, BufferedImage[] images) {
+        long bytes = 12;
+        int count = 0;
+        for (BufferedImage image : images) {
+            if (image == null) continue;
+            bytes += 2 + 256 + 8 + 4L * image.getWidth() * image.getHeight();
+            count++;
+        }
+        if (count == 0 || bytes > MAX_FILE_BYTES) return;
+
+        CACHE_DIR.mkdirs();
+        File temp = new File(CACHE_DIR, file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            for (int i = 0; i < images.length; i++) {
+                BufferedImage image = images[i];
+                if (image == null) continue;
+                byte[] name = locations.get(i).toString().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(name.length);
+                out.write(name);
+                int width = image.getWidth();
+                int height = image.getHeight();
+                out.writeInt(width);
+                out.writeInt(height);
+                for (int pixel : image.getRGB(0, 0, width, height, null, 0, width)) {
+                    out.writeInt(pixel);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            temp.delete();
+            return;
+        }
+
+        // Mapped files cannot be replaced or deleted on Windows
+        for (MappedSprites sprites : openMappings.values()) {
+            if (sprites.file.getName().startsWith(prefix)) sprites.close();
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+            temp.delete();
+            return;
+        }
+        lastFileBytes = file.length();
+
+        // Files for other pack combinations of this atlas are stale now
+        File[] files = CACHE_DIR.listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(".bin"));
+        if (files != null) {
+            for (File other : files) {
+                if (!other.equals(file)) other.delete();
+            }
+        }
+    }
+
+    private File cacheFile(String atlasName, String contentHash) {
+        return new File(CACHE_DIR, atlasPrefix(atlasName) + contentHash + ".bin");
+    }
+
+    private static String atlasPrefix(String atlasName) {
+        return "sprites-" + atlasName.replaceAll("[^A-Za-z0-9]", "_") + "-";
+    }
+
+    /**
+     * Hash of everything that can change sprite contents: resource packs and mods. This stats every file of
+     * folder packs, so callers compute it once per resource reload rather than per lookup.
+     */
+    public String contentHash() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        ResourcePackRepository repository = Minecraft.getMinecraft().getResourcePackRepository();
+        for (ResourcePackRepository.Entry entry : repository.getRepositoryEntries()) {
+            update(digest, "pack", entry.getResourcePack());
+        }
+        IResourcePack serverPack = repository.getResourcePackInstance();
+        if (serverPack != null) update(digest, "server", serverPack);
+
+        for (ModContainer mod : Loader.instance().getActiveModList()) {
+            update(digest, "mod", mod.getModId() + "@" + mod.getVersion());
+            if (mod.getSource() != null) update(digest, "mod", mod.getSource());
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static void update(MessageDigest digest, String kind, IResourcePack pack) {
+        update(digest, kind, pack.getPackName());
+        if (pack instanceof AbstractResourcePack) {
+            update(digest, kind, ((AccessorAbstractResourcePack) pack).getResourcePackFile());
+        }
+    }
+
+    /**
+     * Size and modification time of a pack file, or of every file in a pack folder.
+     */
+    private static void update(MessageDigest digest, String kind, File file) {
+        if (!file.isDirectory()) {
+            update(digest, kind, file.getPath() + ":" + file.length() + ":" + file.lastModified());
+            return;
+        }
+        Path root = file.toPath();
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.filter(Files::isRegularFile).sorted().forEach(path -> {
+                File entry = path.toFile();
+                update(digest, kind, root.relativize(path) + ":" + entry.length() + ":" + entry.lastModified());
+            });
+        } catch (IOException | UncheckedIOException e) {
+            // Unreadable folder: hash something unique so the cache is not trusted for it
+            update(digest, kind, file.getPath() + ":" + System.nanoTime());
+        }
+    }
+
+    private static void update(MessageDigest digest, String kind, String value) {
+        digest.update((kind + "=" + value + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    void recordLookup(boolean hit) {
+        (hit ? hits : misses).incrementAndGet();
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getLastFileBytes() { return lastFileBytes; }
+
+    /**
+     * Index over one mapped cache file. Safe to read from several threads at once.
+     */
+    public static final class MappedSprites {
+        final File file;
+        private final MappedByteBuffer buffer;
+        private final Map<String, Integer> offsets;
+        // Reads hold the read lock so unmapping never races a copy out of the mapping
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private boolean closed;
+
+        private MappedSprites(File file, MappedByteBuffer buffer, Map<String, Integer> offsets) {
+            this.file = file;
+            this.buffer = buffer;
+            this.offsets = offsets;
+        }
+
+        static MappedSprites index(File file, MappedByteBuffer buffer) throws IOException {
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) throw new IOException("bad header");
+            int count = buffer.getInt(8);
+            Map<String, Integer> offsets = new HashMap<>(count * 2);
+            int position = 12;
+            for (int i = 0; i < count; i++) {
+                int nameLength = buffer.getShort(position) & 0xFFFF;
+                byte[] name = new byte[nameLength];
+                ByteBuffer view = buffer.duplicate();
+                view.position(position + 2);
+                view.get(name);
+                position += 2 + nameLength;
+                offsets.put(new String(name, StandardCharsets.UTF_8), position);
+                long pixels = (long) buffer.getInt(position) * buffer.getInt(position + 4);
+                position += 8 + (int) (pixels * 4);
+                if (position > buffer.limit()) throw new IOException("truncated");
+            }
+            return new MappedSprites(file, buffer, offsets);
+        }
+
+        /**
+         * Copy a cached sprite into a new image.
+         * @return The image, or null if the sprite is not in this file.
+         */
+        public BufferedImage get(ResourceLocation location) {
+            Integer offset = offsets.get(location.toString());
+            if (offset == null) return null;
+            lock.readLock().lock();
+            try {
+                if (closed) return null;
+                int width = buffer.getInt(offset);
+                int height = buffer.getInt(offset + 4);
+                BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+                int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+                ByteBuffer view = buffer.duplicate();
+                view.position(offset + 8);
+                view.asIntBuffer().get(pixels);
+                return image;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Unmap the file. Later lookups return null.
+         */
+        public void close() {
+            lock.writeLock().lock();
+            try {
+                if (closed) return;
+                closed = true;
+                unmap(buffer);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            getInstance().openMappings.remove(file, this);
+        }
+    }
+
+    /**
+     * Release a mapping now instead of when it is garbage collected. There is no public API for this before
+     * Java 9, so it goes through the buffer's cleaner; if that fails the mapping is left to the collector.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            try {
+                // Java 9 and later
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            } catch (NoSuchMethodException e) {
+                // Java 8
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.out.println("[Enigmatic] Could not unmap sprite cache: " + e);
+        }
+    }
+}
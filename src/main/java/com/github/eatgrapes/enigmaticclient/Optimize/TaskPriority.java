@@ -0,0 +1,35 @@
+package com.github.eatgrapes.enigmaticclient.optimize;
+
+/**
+ * Work categories understood by the {@link TaskScheduler}.
+ * Each category owns a bounded queue; workers always drain the categories in declaration order.
+ */
+public enum TaskPriority {
+    /** Work whose result is wanted by the next client tick. Stale entries are dropped for fresh ones. */
+    TICK_CRITICAL(64, Overflow.DROP_OLDEST),
+    /** Work whose result is wanted by the next rendered frame. Stale entries are dropped for fresh ones. */
+    FRAME_CRITICAL(64, Overflow.DROP_OLDEST),
+    /** Caching and cleanup work that can wait. New submissions are skipped while the queue is full. */
+    BACKGROUND(256, Overflow.SKIP_NEW);
+
+    /**
+     * What to do with a submission when the category queue is full.
+     */
+    public enum Overflow {
+        /** Reject the new task and keep everything already queued. */
+        SKIP_NEW,
+        /** Evict the oldest queued task to make room for the new one. */
+        DROP_OLDEST
+    }
+
+    private final int capacity;
+    private final Overflow overflow;
+
+    TaskPriority(int capacity, Overflow overflow) {
+        this.capacity = capacity;
+        this.overflow = overflow;
+    }
+
+    public int getCapacity() { return capacity; }
+    public Overflow getOverflow() { return overflow; }
+}
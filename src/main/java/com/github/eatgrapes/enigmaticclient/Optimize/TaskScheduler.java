@@ -0,0 +1,241 @@
+package com.github.eatgrapes.enigmaticclient.optimize;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Single worker pool for all client background work.
+ * <p>
+ * Every {@link TaskPriority} has its own bounded queue, so a slow tick can never grow the backlog without limit.
+ * Tasks may carry a coalescing key: while a task with the same key is queued or running, further submissions
+ * with that key are ignored instead of piling up behind it.
+ */
+public final class TaskScheduler {
+    private static final TaskScheduler INSTANCE = new TaskScheduler(Math.max(2, Runtime.getRuntime().availableProcessors() - 1));
+
+    private final TaskPriority[] priorities = TaskPriority.values();
+    private final ArrayBlockingQueue<ScheduledTask>[] queues;
+    private final QueueStats[] stats;
+    private final Set<Object> pendingKeys = ConcurrentHashMap.newKeySet();
+    private final Semaphore available = new Semaphore(0);
+    private final Thread[] workers;
+    private volatile boolean running = true;
+
+    @SuppressWarnings("unchecked")
+    private TaskScheduler(int workerCount) {
+        queues = new ArrayBlockingQueue[priorities.length];
+        stats = new QueueStats[priorities.length];
+        for (TaskPriority priority : priorities) {
+            queues[priority.ordinal()] = new ArrayBlockingQueue<>(priority.getCapacity());
+            stats[priority.ordinal()] = new QueueStats();
+        }
+
+        workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::workerLoop, "Enigmatic Worker #" + (i + 1));
+            worker.setDaemon(true);
+            worker.setPriority(Thread.NORM_PRIORITY - 1);
+            workers[i] = worker;
+            worker.start();
+        }
+    }
+
+    public static TaskScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queue a task without a coalescing key.
+     * @return Whether the task was queued.
+     */
+    public boolean submit(TaskPriority priority, Runnable task) {
+        return submit(priority, null, task);
+    }
+
+    /**
+     * Queue a task. If a task with the same key is still queued or running, the submission is coalesced into it.
+     * @param key Coalescing key, or null to always queue.
+     * @return Whether the task was queued.
+     */
+    public boolean submit(TaskPriority priority, Object key, Runnable task) {
+        QueueStats queueStats = stats[priority.ordinal()];
+        if (!running) {
+            queueStats.dropped.incrementAndGet();
+            return false;
+        }
+        if (key != null && !pendingKeys.add(key)) {
+            queueStats.coalesced.incrementAndGet();
+            return false;
+        }
+
+        ArrayBlockingQueue<ScheduledTask> queue = queues[priority.ordinal()];
+        ScheduledTask scheduled = new ScheduledTask(priority, key, task);
+        if (!queue.offer(scheduled)) {
+            if (priority.getOverflow() == TaskPriority.Overflow.DROP_OLDEST) {
+                ScheduledTask oldest = queue.poll();
+                if (oldest != null) discard(oldest);
+            }
+            if (priority.getOverflow() == TaskPriority.Overflow.SKIP_NEW || !queue.offer(scheduled)) {
+                discard(scheduled);
+                return false;
+            }
+        }
+
+        queueStats.submitted.incrementAndGet();
+        available.release();
+        return true;
+    }
+
+    /**
+     * Queue a compute step on a worker and hand its result to the client thread through the {@link MainThreadQueue}.
+     * The compute step must not touch Minecraft state; the apply step runs on the client thread and may.
+     * A null result skips the apply step.
+     * @return Whether the task was queued.
+     */
+    public <T> boolean submit(TaskPriority priority, Object key, Supplier<T> compute, Consumer<T> apply) {
+        return submit(priority, key, () -> {
+            T result = compute.get();
+            if (result != null) {
+                MainThreadQueue.getInstance().post(() -> apply.accept(result));
+            }
+        });
+    }
+
+    /**
+     * Number of tasks currently queued for a category.
+     */
+    public int getQueueDepth(TaskPriority priority) {
+        return queues[priority.ordinal()].size();
+    }
+
+    public QueueStats getStats(TaskPriority priority) {
+        return stats[priority.ordinal()];
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    /**
+     * Stop all workers and drop everything still queued.
+     */
+    public void shutdown() {
+        running = false;
+        for (ArrayBlockingQueue<ScheduledTask> queue : queues) {
+            queue.clear();
+        }
+        pendingKeys.clear();
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    private void workerLoop() {
+        while (running) {
+            try {
+                available.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            // Permits can outnumber queued tasks after a drop, so an empty poll is just a spurious wakeup
+            ScheduledTask task = pollHighest();
+            if (task != null) {
+                execute(task);
+            }
+        }
+    }
+
+    private ScheduledTask pollHighest() {
+        for (ArrayBlockingQueue<ScheduledTask> queue : queues) {
+            ScheduledTask task = queue.poll();
+            if (task != null) return task;
+        }
+        return null;
+    }
+
+    private void execute(ScheduledTask task) {
+        QueueStats queueStats = stats[task.priority.ordinal()];
+        long start = System.nanoTime();
+        queueStats.recordWait(start - task.enqueuedAt);
+        try {
+            task.body.run();
+        } catch (Throwable t) {
+            t.printStackTrace();
+        } finally {
+            if (task.key != null) pendingKeys.remove(task.key);
+            queueStats.recordRun(System.nanoTime() - start);
+        }
+    }
+
+    private void discard(ScheduledTask task) {
+        if (task.key != null) pendingKeys.remove(task.key);
+        stats[task.priority.ordinal()].dropped.incrementAndGet();
+    }
+
+    private static final class ScheduledTask {
+        final TaskPriority priority;
+        final Object key;
+        final Runnable body;
+        final long enqueuedAt = System.nanoTime();
+
+        ScheduledTask(TaskPriority priority, Object key, Runnable body) {
+            this.priority = priority;
+            this.key = key;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Running counters for one category queue.
+     */
+    public static final class QueueStats {
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong executed = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong coalesced = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicLong totalRunNanos = new AtomicLong();
+
+        private void recordWait(long nanos) {
+            totalWaitNanos.addAndGet(nanos);
+            long max;
+            while (nanos > (max = maxWaitNanos.get()) && !maxWaitNanos.compareAndSet(max, nanos)) {
+                // retry until the larger value sticks
+            }
+        }
+
+        private void recordRun(long nanos) {
+            executed.incrementAndGet();
+            totalRunNanos.addAndGet(nanos);
+        }
+
+        public long getSubmitted() { return submitted.get(); }
+        public long getExecuted() { return executed.get(); }
+        public long getDropped() { return dropped.get(); }
+        public long getCoalesced() { return coalesced.get(); }
+        public long getMaxWaitNanos() { return maxWaitNanos.get(); }
+
+        public double getAverageWaitMillis() {
+            long count = executed.get();
+            return count == 0 ? 0 : totalWaitNanos.get() / (double) count / 1_000_000.0;
+        }
+
+        public double getAverageRunMillis() {
+            long count = executed.get();
+            return count == 0 ? 0 : totalRunNanos.get() / (double) count / 1_000_000.0;
+        }
+
+        /**
+         * Reset the peak wait, so it reports the peak since this call. Only done on request; reading it does not.
+         */
+        public long resetMaxWaitNanos() {
+            return maxWaitNanos.getAndSet(0);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.github.eatgrapes.enigmaticclient.optimize;
+
+import com.github.eatgrapes.enigmaticclient.config.OptimizeConfig;
+import com.github.eatgrapes.enigmaticclient.mixin.AccessorThreadDownloadImageData;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.ThreadDownloadImageData;
+import net.minecraft.client.renderer.texture.AbstractTexture;
+import net.minecraft.client.renderer.texture.ITextureObject;
+import net.minecraft.client.renderer.texture.LayeredTexture;
+import net.minecraft.client.renderer.texture.SimpleTexture;
+import net.minecraft.util.ResourceLocation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps GPU texture memory under a budget.
+ * <p>
+ * Every texture loaded through the {@code TextureManager} is tracked with its VRAM size, taken from the storage
+ * allocated while it loaded, and the frame its GL name was last asked for. When the tracked total exceeds the
+ * budget, the least recently used textures that can be restored are released: resource-backed textures are
+ * reloaded from the resource manager, downloaded skins and capes are re-uploaded from the image they keep in
+ * memory. Restoring happens lazily in {@code getGlTextureId()}, which every way of binding a texture goes
+ * through, including callers that bypass {@code TextureManager.bindTexture}. Atlases, dynamic textures and
+ * anything of unknown origin are never evicted.
+ * <p>
+ * Render thread only.
+ */
+public final class TextureResidencyManager {
+    private static final TextureResidencyManager INSTANCE = new TextureResidencyManager();
+
+    private static final int CHECK_INTERVAL_FRAMES = 20;
+    // Textures bound this recently are in use and never evicted
+    private static final int MIN_IDLE_FRAMES = 120;
+    // Size assumed for downloaded skins before the image has arrived
+    private static final long DOWNLOAD_ESTIMATE_BYTES = 64 * 64 * 4;
+
+    private enum Restore { RELOAD, REUPLOAD, PINNED }
+
+    private static final class Entry {
+        final ResourceLocation location;
+        final ITextureObject texture;
+        final Restore restore;
+        long bytes;
+        long lastBoundFrame;
+        boolean evicted;
+
+        Entry(ResourceLocation location, ITextureObject texture, Restore restore) {
+            this.location = location;
+            this.texture = texture;
+            this.restore = restore;
+        }
+    }
+
+    private final Map<ResourceLocation, Entry> entries = new HashMap<>();
+    private final Map<ITextureObject, Entry> byTexture = new IdentityHashMap<>();
+    private final Minecraft mc = Minecraft.getMinecraft();
+    private long frame;
+    private long residentBytes;
+    private long pinnedBytes;
+    private long evictions;
+    private long restores;
+    // Last texture storage allocated on the render thread, see onAllocate
+    private int allocatedId = -1;
+    private long allocatedBytes;
+
+    private TextureResidencyManager() {
+    }
+
+    public static TextureResidencyManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Track a texture that was just loaded. Called after {@code TextureManager.loadTexture}.
+     */
+    public void onTextureLoaded(ResourceLocation location, ITextureObject texture) {
+        untrack(location);
+
+        Entry entry = new Entry(location, texture, restoreKind(texture));
+        entry.bytes = estimateBytes(texture);
+        entry.lastBoundFrame = frame;
+        entries.put(location, entry);
+        byTexture.put(texture, entry);
+        residentBytes += entry.bytes;
+        if (entry.restore == Restore.PINNED) pinnedBytes += entry.bytes;
+    }
+
+    /**
+     * Record a use and restore the texture first if it was evicted. Called at the start of
+     * {@code AbstractTexture.getGlTextureId()}.
+     */
+    public void onGlTextureId(ITextureObject texture) {
+        if (byTexture.isEmpty() || !mc.isCallingFromMinecraftThread()) return;
+        Entry entry = byTexture.get(texture);
+        if (entry == null) return;
+        entry.lastBoundFrame = frame;
+        if (entry.evicted) restore(entry);
+    }
+
+    /**
+     * Remember the size of texture storage being allocated, so the texture that loads it can be sized without
+     * querying GL. Called from {@code TextureUtil.allocateTextureImpl}.
+     */
+    public void onAllocate(int glTextureId, int mipmapLevels, int width, int height) {
+        if (!mc.isCallingFromMinecraftThread()) return;
+        long bytes = 0;
+        for (int level = 0; level <= mipmapLevels; level++) {
+            bytes += (long) (width >> level) * (height >> level) * 4;
+        }
+        allocatedId = glTextureId;
+        allocatedBytes = bytes;
+    }
+
+    /**
+     * Stop tracking a texture the {@code TextureManager} deleted.
+     */
+    public void onTextureDeleted(ResourceLocation location) {
+        untrack(location);
+    }
+
+    /**
+     * Advance the frame counter and enforce the budget. Called once per frame on the render thread.
+     */
+    public void onFrame() {
+        frame++;
+        if (frame % CHECK_INTERVAL_FRAMES != 0 || !OptimizeConfig.isTextureResidency()) return;
+
+        long budget = OptimizeConfig.getTextureBudgetMb() * 1024L * 1024L;
+        if (residentBytes <= budget) return;
+
+        List<Entry> candidates = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (!entry.evicted && entry.restore != Restore.PINNED && frame - entry.lastBoundFrame >= MIN_IDLE_FRAMES
+                && canEvict(entry)) {
+                candidates.add(entry);
+            }
+        }
+        candidates.sort((a, b) -> Long.compare(a.lastBoundFrame, b.lastBoundFrame));
+
+        for (Entry entry : candidates) {
+            if (residentBytes <= budget) break;
+            evict(entry);
+        }
+    }
+
+    private Restore restoreKind(ITextureObject texture) {
+        // ThreadDownloadImageData extends SimpleTexture, so it has to be checked first
+        if (texture instanceof ThreadDownloadImageData) return Restore.REUPLOAD;
+        if (texture.getClass() == SimpleTexture.class || texture.getClass() == LayeredTexture.class) return Restore.RELOAD;
+        return Restore.PINNED;
+    }
+
+    private boolean canEvict(Entry entry) {
+        // A skin that is still downloading has nothing to re-upload from
+        return entry.restore != Restore.REUPLOAD
+            || ((AccessorThreadDownloadImageData) entry.texture).getBufferedImage() != null;
+    }
+
+    private long estimateBytes(ITextureObject texture) {
+        if (texture instanceof ThreadDownloadImageData) return DOWNLOAD_ESTIMATE_BYTES;
+        // Loading ends with the upload, so the last allocation belongs to this texture; anything else was
+        // uploaded without allocating (or not at all) and is not worth counting
+        return texture.getGlTextureId() == allocatedId ? allocatedBytes : 0;
+    }
+
+    private void evict(Entry entry) {
+        ((AbstractTexture) entry.texture).deleteGlTexture();
+        if (entry.restore == Restore.REUPLOAD) {
+            // The next getGlTextureId() re-uploads from the image the download kept
+            ((AccessorThreadDownloadImageData) entry.texture).setTextureUploaded(false);
+        }
+        entry.evicted = true;
+        residentBytes -= entry.bytes;
+        evictions++;
+    }
+
+    private void restore(Entry entry) {
+        // Cleared first, reloading asks for the GL name again
+        entry.evicted = false;
+        if (entry.restore == Restore.RELOAD) {
+            try {
+                entry.texture.loadTexture(Minecraft.getMinecraft().getResourceManager());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        residentBytes += entry.bytes;
+        restores++;
+    }
+
+    private void untrack(ResourceLocation location) {
+        Entry previous = entries.remove(location);
+        if (previous != null) byTexture.remove(previous.texture, previous);
+        if (previous != null && !previous.evicted) {
+            residentBytes -= previous.bytes;
+            if (previous.restore == Restore.PINNED) pinnedBytes -= previous.bytes;
+        }
+    }
+
+    public int getTrackedCount() { return entries.size(); }
+    public long getResidentBytes() { return residentBytes; }
+    public long getPinnedBytes() { return pinnedBytes; }
+    public long getEvictions() { return evictions; }
+    public long getRestores() { return restores; }
+
+    public int getEvictedCount() {
+        int count = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.evicted) count++;
+        }
+        return count;
+    }
+}
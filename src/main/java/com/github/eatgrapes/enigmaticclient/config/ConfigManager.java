@@ -1,5 +1,6 @@
 package com.github.eatgrapes.enigmaticclient.config;
 
+import com.github.eatgrapes.enigmaticclient.module.KeybindManager;
 import com.github.eatgrapes.enigmaticclient.module.Module;
 import com.github.eatgrapes.enigmaticclient.module.ModuleManager;
 import com.google.gson.Gson;
@@ -8,24 +9,73 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Loads and saves {@code config/enigmaticclient/config.json} and the module settings profiles next to it.
+ * <p>
+ * Changes only mark the config dirty. {@link #tick} saves once marks have been quiet for a second, or after five
+ * seconds of continuous changes. A save takes a snapshot of the values on the client thread and hands it to a
+ * writer thread, which serializes it, skips each file whose content is unchanged and otherwise writes a temp
+ * file that is moved over the old one atomically, so a crash never leaves a half-written file. {@link #flush}
+ * writes synchronously at shutdown.
+ */
 public class ConfigManager {
     private static final File CONFIG_DIR = new File("config/enigmaticclient");
     private static final File CONFIG_FILE = new File(CONFIG_DIR, "config.json");
+    private static final File PROFILES_FILE = new File(CONFIG_DIR, "profiles.bin");
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
-    private static boolean isDirty = false;
+
+    private static final long DEBOUNCE_NANOS = 1_000_000_000L;
+    private static final long MAX_DELAY_NANOS = 5_000_000_000L;
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Enigmatic Config Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Latest snapshot not written yet; a newer save replaces it
+    private static final AtomicReference<Snapshot> pending = new AtomicReference<>();
+
+    private static volatile boolean isDirty = false;
+    private static volatile long firstDirtyNanos;
+    private static volatile long lastDirtyNanos;
+    // Hashes of the contents on disk, guarded by the class lock
+    private static byte[] configHash;
+    private static byte[] profilesHash;
 
     /**
-     * Mark the config as dirty (needs saving).
+     * Mark the config as dirty (needs saving). Safe from any thread.
      */
     public static void markDirty() {
+        long now = System.nanoTime();
+        if (!isDirty) firstDirtyNanos = now;
+        lastDirtyNanos = now;
         isDirty = true;
     }
 
+    /**
+     * Save if the dirty marks have settled. Called every client tick.
+     */
+    public static void tick() {
+        if (!isDirty) return;
+        long now = System.nanoTime();
+        if (now - lastDirtyNanos >= DEBOUNCE_NANOS || now - firstDirtyNanos >= MAX_DELAY_NANOS) {
+            saveConfig();
+        }
+    }
+
     /**
      * Load the config from file.
      */
@@ -34,13 +84,30 @@ public class ConfigManager {
             CONFIG_DIR.mkdirs();
         }
 
+        // Profiles come first: enabling a module below reads its settings from the active profile
+        if (PROFILES_FILE.exists()) {
+            try {
+                byte[] content = Files.readAllBytes(PROFILES_FILE.toPath());
+                ProfileManager.getInstance().read(content);
+                synchronized (ConfigManager.class) {
+                    profilesHash = hash(content);
+                }
+            } catch (IOException e) {
+                System.out.println("[Enigmatic] Could not read " + PROFILES_FILE.getName() + ": " + e);
+            }
+        }
+
         if (!CONFIG_FILE.exists()) {
             saveConfig();
             return;
         }
 
-        try (FileReader reader = new FileReader(CONFIG_FILE)) {
-            JsonObject config = new JsonParser().parse(reader).getAsJsonObject();
+        try {
+            byte[] content = Files.readAllBytes(CONFIG_FILE.toPath());
+            synchronized (ConfigManager.class) {
+                configHash = hash(content);
+            }
+            JsonObject config = new JsonParser().parse(new String(content, StandardCharsets.UTF_8)).getAsJsonObject();
             if (config == null) return;
 
             // Load module states
@@ -54,39 +121,106 @@ public class ConfigManager {
                     }
                 }
             }
-        } catch (IOException e) {
+
+            // Load optimization tunables
+            if (config.has("optimize")) {
+                OptimizeConfig.readFrom(config.getAsJsonObject("optimize"));
+            }
+
+            if (config.has("keybinds")) {
+                KeybindManager.getInstance().readFrom(config.getAsJsonObject("keybinds"));
+            }
+        } catch (IOException | RuntimeException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * Save the config to file.
+     * Save the config in the background. Client thread only, since module states are read here.
      */
     public static void saveConfig() {
-        try (FileWriter writer = new FileWriter(CONFIG_FILE)) {
-            JsonObject config = new JsonObject();
-
-            // Save module states
-            JsonObject modules = new JsonObject();
-            for (Map.Entry<String, Module> entry : ModuleManager.getInstance().getModules().entrySet()) {
-                modules.addProperty(entry.getKey(), entry.getValue().isEnabled());
-            }
-            config.add("modules", modules);
+        isDirty = false;
+        if (pending.getAndSet(snapshot()) == null) {
+            WRITER.execute(ConfigManager::writePending);
+        }
+    }
 
-            writer.write(GSON.toJson(config));
+    /**
+     * Write the latest state now, waiting for the writer. Called at shutdown on the client thread.
+     */
+    public static void flush() {
+        if (isDirty) {
             isDirty = false;
-            System.out.println("[Enigmatic] Config saved to disk");
+            pending.set(snapshot());
+        }
+        writePending();
+    }
+
+    private static Snapshot snapshot() {
+        JsonObject config = new JsonObject();
+
+        // Save module states
+        JsonObject modules = new JsonObject();
+        for (Map.Entry<String, Module> entry : ModuleManager.getInstance().getModules().entrySet()) {
+            modules.addProperty(entry.getKey(), entry.getValue().isEnabled());
+        }
+        config.add("modules", modules);
+        config.add("optimize", OptimizeConfig.toJson());
+        config.add("keybinds", KeybindManager.getInstance().toJson());
+        return new Snapshot(config, ProfileManager.getInstance().write());
+    }
+
+    private static synchronized void writePending() {
+        Snapshot snapshot = pending.getAndSet(null);
+        if (snapshot == null) return;
+
+        configHash = writeIfChanged(CONFIG_FILE, GSON.toJson(snapshot.config).getBytes(StandardCharsets.UTF_8), configHash);
+        profilesHash = writeIfChanged(PROFILES_FILE, snapshot.profiles, profilesHash);
+    }
+
+    /**
+     * @return The hash of the content now on disk.
+     */
+    private static byte[] writeIfChanged(File file, byte[] content, byte[] writtenHash) {
+        byte[] contentHash = hash(content);
+        if (Arrays.equals(contentHash, writtenHash)) return writtenHash;
+
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            CONFIG_DIR.mkdirs();
+            Files.write(temp.toPath(), content);
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            System.out.println("[Enigmatic] Saved " + file.getName());
+            return contentHash;
         } catch (IOException e) {
             e.printStackTrace();
+            temp.delete();
+            return writtenHash;
+        }
+    }
+
+    private static byte[] hash(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
     /**
-     * Save the config on shutdown (if dirty).
+     * Everything to write, taken on the client thread and not modified afterwards.
      */
-    public static void saveOnShutdown() {
-        if (isDirty) {
-            saveConfig();
+    private static final class Snapshot {
+        final JsonObject config;
+        final byte[] profiles;
+
+        Snapshot(JsonObject config, byte[] profiles) {
+            this.config = config;
+            this.profiles = profiles;
         }
     }
-}
\ No newline at end of file
+}
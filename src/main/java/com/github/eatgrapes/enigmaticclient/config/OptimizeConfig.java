@@ -0,0 +1,122 @@
+package com.github.eatgrapes.enigmaticclient.config;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Tunables for the optimization subsystems, stored in the "optimize" section of the config file.
+ */
+public class OptimizeConfig {
+    // Entity culling
+    private static volatile boolean entityCulling = true;
+    private static volatile double entityCullDistance = 96.0;
+    private static volatile int entityRenderBudget = 0;
+
+    // Adaptive render distance, opt-in since it overrides the user's render distance while active
+    private static volatile boolean adaptiveRenderDistance = false;
+    private static volatile int targetFps = 60;
+    private static volatile int minRenderDistance = 4;
+    private static volatile int maxRenderDistance = 16;
+
+    // Texture residency
+    private static volatile boolean textureResidency = true;
+    private static volatile int textureBudgetMb = 256;
+
+    public static boolean isEntityCulling() { return entityCulling; }
+
+    /**
+     * Distance in blocks beyond which non-player entities are never rendered. 0 disables the distance limit.
+     */
+    public static double getEntityCullDistance() { return entityCullDistance; }
+
+    /**
+     * Maximum number of non-player entities rendered per frame, nearest first. 0 means unlimited.
+     */
+    public static int getEntityRenderBudget() { return entityRenderBudget; }
+
+    public static boolean isAdaptiveRenderDistance() { return adaptiveRenderDistance; }
+    public static int getTargetFps() { return targetFps; }
+    public static int getMinRenderDistance() { return minRenderDistance; }
+    public static int getMaxRenderDistance() { return maxRenderDistance; }
+    public static boolean isTextureResidency() { return textureResidency; }
+
+    /**
+     * Estimated VRAM in megabytes that tracked textures may use before idle ones are evicted.
+     */
+    public static int getTextureBudgetMb() { return textureBudgetMb; }
+
+    public static void setEntityCulling(boolean enabled) {
+        entityCulling = enabled;
+        ConfigManager.markDirty();
+    }
+
+    public static void setEntityCullDistance(double distance) {
+        entityCullDistance = Math.max(0.0, distance);
+        ConfigManager.markDirty();
+    }
+
+    public static void setEntityRenderBudget(int budget) {
+        entityRenderBudget = Math.max(0, budget);
+        ConfigManager.markDirty();
+    }
+
+    public static void setAdaptiveRenderDistance(boolean enabled) {
+        adaptiveRenderDistance = enabled;
+        ConfigManager.markDirty();
+    }
+
+    public static void setTargetFps(int fps) {
+        targetFps = Math.max(10, fps);
+        ConfigManager.markDirty();
+    }
+
+    /**
+     * Set the render distance bounds in chunks. The bounds are clamped to the vanilla slider range.
+     */
+    public static void setRenderDistanceBounds(int min, int max) {
+        minRenderDistance = Math.max(2, Math.min(32, min));
+        maxRenderDistance = Math.max(minRenderDistance, Math.min(32, max));
+        ConfigManager.markDirty();
+    }
+
+    public static void setTextureResidency(boolean enabled) {
+        textureResidency = enabled;
+        ConfigManager.markDirty();
+    }
+
+    public static void setTextureBudgetMb(int budgetMb) {
+        textureBudgetMb = Math.max(16, budgetMb);
+        ConfigManager.markDirty();
+    }
+
+    /**
+     * Read values from the config section, keeping defaults for anything missing.
+     */
+    static void readFrom(JsonObject json) {
+        if (json.has("entityCulling")) entityCulling = json.get("entityCulling").getAsBoolean();
+        if (json.has("entityCullDistance")) entityCullDistance = Math.max(0.0, json.get("entityCullDistance").getAsDouble());
+        if (json.has("entityRenderBudget")) entityRenderBudget = Math.max(0, json.get("entityRenderBudget").getAsInt());
+        if (json.has("adaptiveRenderDistance")) adaptiveRenderDistance = json.get("adaptiveRenderDistance").getAsBoolean();
+        if (json.has("targetFps")) targetFps = Math.max(10, json.get("targetFps").getAsInt());
+        if (json.has("minRenderDistance")) minRenderDistance = Math.max(2, Math.min(32, json.get("minRenderDistance").getAsInt()));
+        if (json.has("maxRenderDistance")) maxRenderDistance = Math.max(minRenderDistance, Math.min(32, json.get("maxRenderDistance").getAsInt()));
+        if (json.has("textureResidency")) textureResidency = json.get("textureResidency").getAsBoolean();
+        if (json.has("textureBudgetMb")) textureBudgetMb = Math.max(16, json.get("textureBudgetMb").getAsInt());
+    }
+
+    /**
+     * Write all values into a new config section.
+     */
+    static JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("entityCulling", entityCulling);
+        json.addProperty("entityCullDistance", entityCullDistance);
+        json.addProperty("entityRenderBudget", entityRenderBudget);
+        json.addProperty("adaptiveRenderDistance", adaptiveRenderDistance);
+        json.addProperty("targetFps", targetFps);
+        json.addProperty("minRenderDistance", minRenderDistance);
+        json.addProperty("maxRenderDistance", maxRenderDistance);
+        json.addProperty("textureResidency", textureResidency);
+        json.addProperty("textureBudgetMb", textureBudgetMb);
+        return json;
+    }
+}
@@ -0,0 +1,227 @@
+package com.github.eatgrapes.enigmaticclient.config;
+
+import com.github.eatgrapes.enigmaticclient.module.Module;
+import com.github.eatgrapes.enigmaticclient.module.ModuleManager;
+import com.github.eatgrapes.enigmaticclient.module.settings.Setting;
+import com.github.eatgrapes.enigmaticclient.module.settings.SettingsCodec;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Named sets of module settings, stored in {@code config/enigmaticclient/profiles.bin}.
+ * <p>
+ * Loading the file only splits it into one opaque block per module and profile; a block is decoded when its
+ * module first needs its settings (see {@link Module#ensureSettingsLoaded}). Switching profiles decodes the new
+ * blocks of modules already loaded and leaves the rest for later, so neither startup nor a switch parses more
+ * than what is in use. Modules that were never loaded keep their stored block untouched when saving.
+ * <p>
+ * Format, big-endian: magic, version, active profile name, profile count, then per profile its name, module
+ * count and per module its name, block length and the block from {@link SettingsCodec}.
+ * Profiles can also be exported to and imported from JSON in {@code config/enigmaticclient/profiles}.
+ * Client thread only.
+ */
+public final class ProfileManager {
+    private static final ProfileManager INSTANCE = new ProfileManager();
+
+    private static final File EXPORT_DIR = new File("config/enigmaticclient/profiles");
+    private static final int MAGIC = 0x454E5046; // "ENPF"
+    private static final int VERSION = 1;
+    private static final String DEFAULT_PROFILE = "default";
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    // Profile name -> module key -> settings block; blocks are never modified once stored
+    private final Map<String, Map<String, byte[]>> profiles = new LinkedHashMap<>();
+    private String active = DEFAULT_PROFILE;
+
+    private ProfileManager() {
+        profiles.put(DEFAULT_PROFILE, new LinkedHashMap<>());
+    }
+
+    public static ProfileManager getInstance() {
+        return INSTANCE;
+    }
+
+    public String getActive() { return active; }
+
+    public List<String> getProfileNames() {
+        return new ArrayList<>(profiles.keySet());
+    }
+
+    /**
+     * Split the contents of the profiles file into blocks. Nothing is decoded yet.
+     */
+    void read(byte[] content) throws IOException {
+        long start = System.nanoTime();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(content))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a profiles file");
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported profiles version " + version);
+
+            String activeName = in.readUTF();
+            int profileCount = in.readInt();
+            Map<String, Map<String, byte[]>> loaded = new LinkedHashMap<>();
+            for (int p = 0; p < profileCount; p++) {
+                String profileName = in.readUTF();
+                int moduleCount = in.readInt();
+                Map<String, byte[]> blocks = new LinkedHashMap<>();
+                for (int m = 0; m < moduleCount; m++) {
+                    String moduleKey = in.readUTF();
+                    byte[] block = new byte[in.readInt()];
+                    in.readFully(block);
+                    blocks.put(moduleKey, block);
+                }
+                loaded.put(profileName, blocks);
+            }
+
+            profiles.clear();
+            profiles.putAll(loaded);
+            profiles.putIfAbsent(DEFAULT_PROFILE, new LinkedHashMap<>());
+            active = profiles.containsKey(activeName) ? activeName : DEFAULT_PROFILE;
+        }
+        System.out.println("[Enigmatic] Read " + profiles.size() + " profiles in "
+            + (System.nanoTime() - start) / 1000 + " us");
+    }
+
+    /**
+     * Serialize all profiles, including the current values of loaded modules.
+     */
+    byte[] write() {
+        capture();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(active);
+            out.writeInt(profiles.size());
+            for (Map.Entry<String, Map<String, byte[]>> profile : profiles.entrySet()) {
+                out.writeUTF(profile.getKey());
+                out.writeInt(profile.getValue().size());
+                for (Map.Entry<String, byte[]> block : profile.getValue().entrySet()) {
+                    out.writeUTF(block.getKey());
+                    out.writeInt(block.getValue().length);
+                    out.write(block.getValue());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a module's block from the active profile into its settings. Called once per module.
+     */
+    public void applyTo(Module module, List<Setting<?>> settings) {
+        byte[] block = profiles.get(active).get(key(module));
+        if (block == null) return;
+        try {
+            SettingsCodec.decode(block, settings);
+        } catch (IOException e) {
+            System.out.println("[Enigmatic] Discarding stored settings of " + module.getName() + ": " + e);
+        }
+    }
+
+    /**
+     * Make a profile active, creating it as a copy of the current one if it does not exist.
+     * @return true if the profile was created.
+     */
+    public boolean switchTo(String name) {
+        capture();
+        boolean created = !profiles.containsKey(name);
+        if (created) profiles.put(name, new LinkedHashMap<>(profiles.get(active)));
+        active = name;
+
+        Map<String, byte[]> blocks = profiles.get(name);
+        for (Module module : ModuleManager.getInstance().getModules().values()) {
+            if (!module.isSettingsLoaded()) continue;
+            byte[] block = blocks.get(key(module));
+            if (block == null) {
+                module.getSettings().forEach(Setting::reset);
+            } else {
+                applyTo(module, module.getSettings());
+            }
+        }
+        ConfigManager.markDirty();
+        return created;
+    }
+
+    /**
+     * Delete a profile other than the active one.
+     */
+    public boolean delete(String name) {
+        if (name.equals(active) || profiles.remove(name) == null) return false;
+        ConfigManager.markDirty();
+        return true;
+    }
+
+    /**
+     * Write the active profile as JSON. Loads the settings of every module.
+     * @return The written file.
+     */
+    public File exportActive() throws IOException {
+        JsonObject json = new JsonObject();
+        for (Map.Entry<String, Module> entry : ModuleManager.getInstance().getModules().entrySet()) {
+            List<Setting<?>> settings = entry.getValue().getSettings();
+            if (!settings.isEmpty()) json.add(entry.getKey(), SettingsCodec.toJson(settings));
+        }
+        EXPORT_DIR.mkdirs();
+        File file = new File(EXPORT_DIR, fileName(active));
+        Files.write(file.toPath(), GSON.toJson(json).getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Apply an exported profile to the active one.
+     * @return The number of modules updated.
+     */
+    public int importInto(String name) throws IOException {
+        File file = new File(EXPORT_DIR, fileName(name));
+        JsonObject json = new JsonParser().parse(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8))
+            .getAsJsonObject();
+        int updated = 0;
+        for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
+            Module module = ModuleManager.getInstance().getModule(entry.getKey()).orElse(null);
+            if (module == null || !entry.getValue().isJsonObject()) continue;
+            SettingsCodec.fromJson(entry.getValue().getAsJsonObject(), module.getSettings());
+            updated++;
+        }
+        ConfigManager.markDirty();
+        return updated;
+    }
+
+    /**
+     * Store the current values of loaded modules in the active profile.
+     */
+    private void capture() {
+        Map<String, byte[]> blocks = profiles.get(active);
+        for (Module module : ModuleManager.getInstance().getModules().values()) {
+            if (module.isSettingsLoaded() && !module.getSettings().isEmpty()) {
+                blocks.put(key(module), SettingsCodec.encode(module.getSettings()));
+            }
+        }
+    }
+
+    private static String key(Module module) {
+        return module.getName().toLowerCase();
+    }
+
+    private static String fileName(String profile) {
+        return profile.replaceAll("[^A-Za-z0-9_-]", "_") + ".json";
+    }
+}
@@ -4,19 +4,24 @@ import org.spongepowered.asm.lib.tree.ClassNode;
 import org.spongepowered.asm.mixin.extensibility.IMixinConfigPlugin;
 import org.spongepowered.asm.mixin.extensibility.IMixinInfo;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 
 /**
  * A mixin plugin to automatically discover all mixins in the current JAR.
@@ -104,13 +109,23 @@ public class AutoDiscoveryMixinPlugin implements IMixinConfigPlugin {
     }
 
     /**
-     * Search through the JAR or class directory to find mixins contained in {@link #getMixinPackage()}
+     * Find mixins contained in {@link #getMixinPackage()}, from the build-time index if there is one and by
+     * searching the JAR or class directory otherwise.
      */
     @Override
     public List<String> getMixins() {
         if (mixins != null) return mixins;
-        System.out.println("Trying to discover mixins");
+        StartupProfiler.begin("mixin", "Discover mixins");
+        long start = System.nanoTime();
         mixins = new ArrayList<>();
+        if (readIndex()) {
+            System.out.println("Found mixins in index in " + (System.nanoTime() - start) / 1000 + " us: " + mixins);
+            MixinSwitches.registerDefaults(mixins);
+            StartupProfiler.end();
+            return mixins;
+        }
+
+        System.out.println("Trying to discover mixins");
         URL classUrl = getClass().getProtectionDomain().getCodeSource().getLocation();
         System.out.println("Found classes at " + classUrl);
         Path file;
@@ -125,11 +140,34 @@ public class AutoDiscoveryMixinPlugin implements IMixinConfigPlugin {
         } else {
             walkJar(file);
         }
-        System.out.println("Found mixins: " + mixins);
+        System.out.println("Found mixins in " + (System.nanoTime() - start) / 1_000_000 + " ms: " + mixins);
+        MixinSwitches.registerDefaults(mixins);
+        StartupProfiler.end();
 
         return mixins;
     }
 
+    /**
+     * Read the mixin list generated by the {@code generateMixinIndex} Gradle task.
+     *
+     * @return whether the index was found.
+     */
+    private boolean readIndex() {
+        InputStream index = getClass().getResourceAsStream("/META-INF/mixin-index/" + getMixinPackage() + ".txt");
+        if (index == null) return false;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(index, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) mixins.add(line);
+            }
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            mixins.clear();
+            return false;
+        }
+    }
+
     /**
      * Search through directory for mixin classes based on {@link #getMixinBaseDir}.
      *
@@ -146,15 +184,17 @@ public class AutoDiscoveryMixinPlugin implements IMixinConfigPlugin {
     }
 
     /**
-     * Read through a JAR file, trying to find all mixins inside.
+     * Read through a JAR file, trying to find all mixins inside. Only the central directory is read; no entry is
+     * decompressed.
      */
     private void walkJar(Path file) {
         System.out.println("Trying to find mixins from jar file");
-        try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(file))) {
-            ZipEntry next;
-            while ((next = zis.getNextEntry()) != null) {
-                tryAddMixinClass(next.getName());
-                zis.closeEntry();
+        String baseDir = getMixinBaseDir() + "/";
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (name.startsWith(baseDir)) tryAddMixinClass(name);
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -163,12 +203,12 @@ public class AutoDiscoveryMixinPlugin implements IMixinConfigPlugin {
 
     @Override
     public void preApply(String targetClassName, ClassNode targetClass, String mixinClassName, IMixinInfo mixinInfo) {
-
+        MixinApplyStats.preApply(targetClassName, mixinClassName);
     }
 
     @Override
     public void postApply(String targetClassName, ClassNode targetClass, String mixinClassName, IMixinInfo mixinInfo) {
-
+        MixinApplyStats.postApply(targetClassName);
     }
 
     @Override
@@ -178,7 +218,9 @@ public class AutoDiscoveryMixinPlugin implements IMixinConfigPlugin {
 
     @Override
     public boolean shouldApplyMixin(String targetClassName, String mixinClassName) {
-        return true;
+        boolean enabled = MixinSwitches.isEnabled(mixinClassName.substring(getMixinPackage().length() + 1));
+        if (!enabled) System.out.println("Skipping disabled mixin " + mixinClassName);
+        return enabled;
     }
 
     @Override
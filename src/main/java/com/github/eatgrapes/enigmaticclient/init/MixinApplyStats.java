@@ -0,0 +1,89 @@
+package com.github.eatgrapes.enigmaticclient.init;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time spent applying our mixins, per target class.
+ * <p>
+ * Mixin calls {@code preApply} for every mixin of a target before applying any of them, and {@code postApply}
+ * for each afterwards, so the span from the first {@code preApply} to the last {@code postApply} on a thread
+ * covers all of our mixins on that target. Targets load lazily, so this keeps recording after startup;
+ * spans during startup also go to the {@link StartupProfiler}.
+ * <p>
+ * Used from the mixin plugin, so this class must not reference game classes.
+ */
+public final class MixinApplyStats {
+    private static final ThreadLocal<Map<String, OpenTarget>> openTargets = ThreadLocal.withInitial(HashMap::new);
+    private static final List<Target> targets = new ArrayList<>();
+
+    private MixinApplyStats() {
+    }
+
+    static void preApply(String targetClassName, String mixinClassName) {
+        Map<String, OpenTarget> open = openTargets.get();
+        OpenTarget target = open.get(targetClassName);
+        if (target == null) {
+            target = new OpenTarget(System.nanoTime(), StartupProfiler.cpuNanos());
+            open.put(targetClassName, target);
+        }
+        target.mixins.add(mixinClassName.substring(mixinClassName.lastIndexOf('.') + 1));
+        target.pending++;
+    }
+
+    static void postApply(String targetClassName) {
+        Map<String, OpenTarget> open = openTargets.get();
+        OpenTarget target = open.get(targetClassName);
+        if (target == null || --target.pending > 0) return;
+        open.remove(targetClassName);
+
+        String mixins = String.join(", ", target.mixins);
+        long nanos = System.nanoTime() - target.startNanos;
+        synchronized (targets) {
+            targets.add(new Target(targetClassName, mixins, nanos));
+        }
+        StartupProfiler.complete("mixin", targetClassName, target.startNanos, target.startCpuNanos, mixins);
+    }
+
+    /**
+     * Every transformed target so far, slowest first.
+     */
+    public static List<Target> getTargets() {
+        List<Target> result;
+        synchronized (targets) {
+            result = new ArrayList<>(targets);
+        }
+        result.sort((a, b) -> Long.compare(b.nanos, a.nanos));
+        return Collections.unmodifiableList(result);
+    }
+
+    private static final class OpenTarget {
+        final long startNanos;
+        final long startCpuNanos;
+        final List<String> mixins = new ArrayList<>(2);
+        int pending;
+
+        OpenTarget(long startNanos, long startCpuNanos) {
+            this.startNanos = startNanos;
+            this.startCpuNanos = startCpuNanos;
+        }
+    }
+
+    /**
+     * One transformed target class and the mixins applied to it.
+     */
+    public static final class Target {
+        public final String className;
+        public final String mixins;
+        public final long nanos;
+
+        Target(String className, String mixins, long nanos) {
+            this.className = className;
+            this.mixins = mixins;
+            this.nanos = nanos;
+        }
+    }
+}
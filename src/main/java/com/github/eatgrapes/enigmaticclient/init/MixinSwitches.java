@@ -0,0 +1,128 @@
+package com.github.eatgrapes.enigmaticclient.init;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Per-mixin enable flags, stored in {@code config/enigmaticclient/mixins.json}.
+ * <p>
+ * Mixins are named relative to the mixin package, e.g. {@code MixinRenderGlobal}. Every discovered mixin is
+ * listed in the file, enabled by default, so a mixin that conflicts with another mod can be switched off there.
+ * Changes take effect on the next launch, since a class cannot be untransformed once loaded, so
+ * {@link #isEnabled} keeps answering with the flags the game launched with. Accessors are always applied
+ * because other code casts to them unconditionally, and so are the mixins the client itself needs to work,
+ * such as the one carrying {@code .eni} commands: with it off, the command to switch it back on would go to
+ * the server as chat.
+ * <p>
+ * Read while mixins are being selected, so this class must not reference game classes.
+ */
+public final class MixinSwitches {
+    private static final File FILE = new File("config/enigmaticclient/mixins.json");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String ACCESSOR_PREFIX = "Accessor";
+    // Commands and every packet interceptor are dispatched from MixinNetworkManager
+    private static final Set<String> REQUIRED = Collections.singleton("MixinNetworkManager");
+
+    private static Map<String, Boolean> switches;
+    // Flags as read at launch, which decided what was applied
+    private static Map<String, Boolean> launchSwitches;
+
+    private MixinSwitches() {
+    }
+
+    /**
+     * Whether a mixin is applied in this launch. Not affected by {@link #setEnabled}.
+     * @param mixinName Mixin class name relative to the mixin package.
+     */
+    public static synchronized boolean isEnabled(String mixinName) {
+        if (!isSwitchable(mixinName)) return true;
+        load();
+        Boolean enabled = launchSwitches.get(mixinName);
+        return enabled == null || enabled;
+    }
+
+    /**
+     * Change a flag and write the file. Applies from the next launch.
+     * @return false if the mixin is unknown or cannot be switched.
+     */
+    public static synchronized boolean setEnabled(String mixinName, boolean enabled) {
+        Map<String, Boolean> current = load();
+        if (!isSwitchable(mixinName) || !current.containsKey(mixinName)) return false;
+        current.put(mixinName, enabled);
+        save();
+        return true;
+    }
+
+    /**
+     * All switchable mixins and their flags, sorted by name.
+     */
+    public static synchronized Map<String, Boolean> getSwitches() {
+        return Collections.unmodifiableMap(new TreeMap<>(load()));
+    }
+
+    /**
+     * Add discovered mixins missing from the file as enabled, and write it if anything was added.
+     */
+    static synchronized void registerDefaults(List<String> mixinNames) {
+        Map<String, Boolean> current = load();
+        boolean changed = !FILE.exists();
+        for (String name : mixinNames) {
+            if (isSwitchable(name) && !current.containsKey(name)) {
+                current.put(name, true);
+                changed = true;
+            }
+        }
+        if (changed) save();
+    }
+
+    private static boolean isSwitchable(String mixinName) {
+        return !mixinName.startsWith(ACCESSOR_PREFIX) && !REQUIRED.contains(mixinName);
+    }
+
+    private static Map<String, Boolean> load() {
+        if (switches != null) return switches;
+        switches = new TreeMap<>();
+        launchSwitches = Collections.emptyMap();
+        if (!FILE.exists()) return switches;
+
+        try (FileReader reader = new FileReader(FILE)) {
+            JsonObject json = new JsonParser().parse(reader).getAsJsonObject();
+            for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
+                // Flags for required mixins, e.g. from older versions, are dropped on the next save
+                if (isSwitchable(entry.getKey())) switches.put(entry.getKey(), entry.getValue().getAsBoolean());
+            }
+        } catch (IOException | RuntimeException e) {
+            // A broken file must not keep the game from starting; fall back to applying everything
+            System.out.println("[Enigmatic] Could not read " + FILE.getPath() + ": " + e);
+        }
+        launchSwitches = new HashMap<>(switches);
+        return switches;
+    }
+
+    private static void save() {
+        FILE.getParentFile().mkdirs();
+        JsonObject json = new JsonObject();
+        for (Map.Entry<String, Boolean> entry : switches.entrySet()) {
+            json.addProperty(entry.getKey(), entry.getValue());
+        }
+        try (FileWriter writer = new FileWriter(FILE)) {
+            writer.write(GSON.toJson(json));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
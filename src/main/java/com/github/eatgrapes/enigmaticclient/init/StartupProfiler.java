@@ -0,0 +1,202 @@
+package com.github.eatgrapes.enigmaticclient.init;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records wall and CPU time of startup stages and writes them as a Chrome trace-event file.
+ * <p>
+ * Spans are opened and closed on the thread doing the work and may nest. Recording starts when this class is
+ * first touched (mixin discovery, before any game class loads) and stops at {@link #finish}, after which every
+ * call is a no-op. Open the written file in {@code chrome://tracing} or Perfetto; the previous launch is kept
+ * next to it as a baseline.
+ * <p>
+ * This class is used from the mixin plugin, so it must not reference game classes.
+ */
+public final class StartupProfiler {
+    private static final File TRACE_FILE = new File("config/enigmaticclient/startup-trace.json");
+    private static final File PREVIOUS_TRACE_FILE = new File("config/enigmaticclient/startup-trace.prev.json");
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+    // nanoTime value at JVM start, so trace timestamps line up with the whole launch
+    private static final long ORIGIN_NANOS = System.nanoTime()
+        - (System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime()) * 1_000_000L;
+
+    private static final List<Event> events = new ArrayList<>();
+    private static final ThreadLocal<Deque<Span>> openSpans = ThreadLocal.withInitial(ArrayDeque::new);
+    private static volatile boolean recording = true;
+
+    private StartupProfiler() {
+    }
+
+    /**
+     * Open a span on the current thread. Must be closed by {@link #end} on the same thread.
+     */
+    public static void begin(String category, String name) {
+        if (!recording) return;
+        openSpans.get().push(new Span(category, name, System.nanoTime(), cpuNanos()));
+    }
+
+    /**
+     * Close the innermost span opened on the current thread.
+     */
+    public static void end() {
+        if (!recording) return;
+        Span span = openSpans.get().poll();
+        if (span != null) record(span.category, span.name, span.startNanos, span.startCpuNanos, null);
+    }
+
+    /**
+     * Record a span whose start was measured elsewhere, ending now.
+     * @param startCpuNanos Thread CPU time at the start from {@link #cpuNanos}, or -1.
+     */
+    public static void complete(String category, String name, long startNanos, long startCpuNanos, String detail) {
+        if (!recording) return;
+        record(category, name, startNanos, startCpuNanos, detail);
+    }
+
+    /**
+     * Stop recording and close the launch span.
+     * @return Milliseconds from JVM start until now, or -1 if recording had already stopped.
+     */
+    public static long finish() {
+        if (!recording) return -1;
+        long now = System.nanoTime();
+        record("startup", "Launch", ORIGIN_NANOS, -1, null);
+        recording = false;
+        return (now - ORIGIN_NANOS) / 1_000_000L;
+    }
+
+    /**
+     * Write the recorded events, keeping the previous file as a baseline. Call after {@link #finish}.
+     */
+    public static void writeTrace() {
+        List<Event> snapshot;
+        synchronized (events) {
+            snapshot = new ArrayList<>(events);
+        }
+
+        TRACE_FILE.getParentFile().mkdirs();
+        try {
+            if (TRACE_FILE.exists()) {
+                Files.move(TRACE_FILE.toPath(), PREVIOUS_TRACE_FILE.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (Writer writer = Files.newBufferedWriter(TRACE_FILE.toPath(), StandardCharsets.UTF_8)) {
+                writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+                for (int i = 0; i < snapshot.size(); i++) {
+                    if (i > 0) writer.write(",\n");
+                    snapshot.get(i).write(writer);
+                }
+                writer.write("\n]}\n");
+            }
+            System.out.println("[Enigmatic] Startup trace written to " + TRACE_FILE.getPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void record(String category, String name, long startNanos, long startCpuNanos, String detail) {
+        long endNanos = System.nanoTime();
+        long cpu = startCpuNanos >= 0 && CPU_TIME ? cpuNanos() - startCpuNanos : -1;
+        Thread thread = Thread.currentThread();
+        Event event = new Event(category, name, (startNanos - ORIGIN_NANOS) / 1000L, (endNanos - startNanos) / 1000L,
+            cpu, thread.getId(), thread.getName(), detail);
+        synchronized (events) {
+            events.add(event);
+        }
+    }
+
+    /**
+     * CPU time of the current thread, or -1 where the JVM does not measure it.
+     */
+    public static long cpuNanos() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static final class Span {
+        final String category;
+        final String name;
+        final long startNanos;
+        final long startCpuNanos;
+
+        Span(String category, String name, long startNanos, long startCpuNanos) {
+            this.category = category;
+            this.name = name;
+            this.startNanos = startNanos;
+            this.startCpuNanos = startCpuNanos;
+        }
+    }
+
+    /**
+     * One complete ("X") trace event. Times are in microseconds.
+     */
+    private static final class Event {
+        final String category;
+        final String name;
+        final long startMicros;
+        final long durationMicros;
+        final long cpuNanos;
+        final long threadId;
+        final String threadName;
+        final String detail;
+
+        Event(String category, String name, long startMicros, long durationMicros, long cpuNanos,
+              long threadId, String threadName, String detail) {
+            this.category = category;
+            this.name = name;
+            this.startMicros = startMicros;
+            this.durationMicros = durationMicros;
+            this.cpuNanos = cpuNanos;
+            this.threadId = threadId;
+            this.threadName = threadName;
+            this.detail = detail;
+        }
+
+        void write(Writer writer) throws IOException {
+            StringBuilder sb = new StringBuilder(160);
+            sb.append("{\"ph\":\"X\",\"pid\":1,\"tid\":").append(threadId)
+              .append(",\"ts\":").append(startMicros)
+              .append(",\"dur\":").append(durationMicros)
+              .append(",\"cat\":");
+            quote(sb, category);
+            sb.append(",\"name\":");
+            quote(sb, name);
+            sb.append(",\"args\":{\"thread\":");
+            quote(sb, threadName);
+            if (cpuNanos >= 0) sb.append(",\"cpuMs\":").append(String.format(Locale.ROOT, "%.3f", cpuNanos / 1_000_000.0));
+            if (detail != null) {
+                sb.append(",\"detail\":");
+                quote(sb, detail);
+            }
+            sb.append("}}");
+            writer.write(sb.toString());
+        }
+
+        private static void quote(StringBuilder sb, String value) {
+            sb.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    sb.append('\\').append(c);
+                } else if (c < 0x20) {
+                    sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+            sb.append('"');
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import net.minecraft.client.resources.AbstractResourcePack;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+import java.io.File;
+
+@Mixin(AbstractResourcePack.class)
+public interface AccessorAbstractResourcePack {
+
+    @Accessor("resourcePackFile")
+    File getResourcePackFile();
+}
@@ -0,0 +1,12 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import net.minecraft.network.play.client.C00PacketKeepAlive;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+@Mixin(C00PacketKeepAlive.class)
+public interface AccessorC00PacketKeepAlive {
+
+    @Accessor("key")
+    int getKey();
+}
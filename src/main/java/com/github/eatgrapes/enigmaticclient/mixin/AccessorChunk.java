@@ -0,0 +1,15 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import net.minecraft.world.chunk.Chunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+@Mixin(Chunk.class)
+public interface AccessorChunk {
+
+    @Accessor("heightMapMinimum")
+    void setHeightMapMinimum(int heightMapMinimum);
+
+    @Accessor("precipitationHeightMap")
+    int[] getPrecipitationHeightMap();
+}
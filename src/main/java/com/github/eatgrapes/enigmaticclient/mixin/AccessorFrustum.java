@@ -0,0 +1,13 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import net.minecraft.client.renderer.culling.ClippingHelper;
+import net.minecraft.client.renderer.culling.Frustum;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+@Mixin(Frustum.class)
+public interface AccessorFrustum {
+
+    @Accessor("clippingHelper")
+    ClippingHelper getClippingHelper();
+}
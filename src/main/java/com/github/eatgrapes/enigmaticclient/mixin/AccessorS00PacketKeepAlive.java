@@ -0,0 +1,12 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import net.minecraft.network.play.server.S00PacketKeepAlive;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+@Mixin(S00PacketKeepAlive.class)
+public interface AccessorS00PacketKeepAlive {
+
+    @Accessor("id")
+    int getId();
+}
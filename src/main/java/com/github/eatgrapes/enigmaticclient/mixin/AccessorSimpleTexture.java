@@ -0,0 +1,13 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import net.minecraft.client.renderer.texture.SimpleTexture;
+import net.minecraft.util.ResourceLocation;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+@Mixin(SimpleTexture.class)
+public interface AccessorSimpleTexture {
+
+    @Accessor("textureLocation")
+    ResourceLocation getTextureLocation();
+}
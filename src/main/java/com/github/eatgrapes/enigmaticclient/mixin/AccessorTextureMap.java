@@ -0,0 +1,23 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.client.renderer.texture.TextureMap;
+import net.minecraft.util.ResourceLocation;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+import java.util.Map;
+
+@Mixin(TextureMap.class)
+public interface AccessorTextureMap {
+
+    @Accessor("mapRegisteredSprites")
+    Map<String, TextureAtlasSprite> getMapRegisteredSprites();
+
+    @Accessor("basePath")
+    String getBasePath();
+
+    @Invoker("completeResourceLocation")
+    ResourceLocation invokeCompleteResourceLocation(ResourceLocation location, int mipLevel);
+}
@@ -0,0 +1,17 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import net.minecraft.client.renderer.ThreadDownloadImageData;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+import java.awt.image.BufferedImage;
+
+@Mixin(ThreadDownloadImageData.class)
+public interface AccessorThreadDownloadImageData {
+
+    @Accessor("bufferedImage")
+    BufferedImage getBufferedImage();
+
+    @Accessor("textureUploaded")
+    void setTextureUploaded(boolean uploaded);
+}
@@ -0,0 +1,19 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import com.github.eatgrapes.enigmaticclient.optimize.TextureResidencyManager;
+import net.minecraft.client.renderer.texture.AbstractTexture;
+import net.minecraft.client.renderer.texture.ITextureObject;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(AbstractTexture.class)
+public abstract class MixinAbstractTexture {
+
+    @Inject(method = "getGlTextureId", at = @At("HEAD"))
+    private void onGetGlTextureId(CallbackInfoReturnable<Integer> cir) {
+        // Every bind path asks for the GL name, so evicted textures are restored here
+        TextureResidencyManager.getInstance().onGlTextureId((ITextureObject) this);
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import com.github.eatgrapes.enigmaticclient.optimize.LightingCache;
+import net.minecraft.client.Minecraft;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+@Mixin(Entity.class)
+public abstract class MixinEntity {
+
+    @Redirect(
+        method = "getBrightness",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/world/World;getLightBrightness(Lnet/minecraft/util/BlockPos;)F"
+        )
+    )
+    private float onGetLightBrightness(World world, BlockPos pos) {
+        // The integrated server ticks its own entities on another thread; only the client world is cached
+        if (world.isRemote && Minecraft.getMinecraft().isCallingFromMinecraftThread()) {
+            return LightingCache.getInstance().getLightBrightness(world, pos);
+        }
+        return world.getLightBrightness(pos);
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import com.github.eatgrapes.enigmaticclient.EnigmaticClient;
+import com.github.eatgrapes.enigmaticclient.optimize.OptimizeManager;
+import net.minecraft.client.settings.GameSettings;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(GameSettings.class)
+public abstract class MixinGameSettings {
+
+    // options.txt keeps the user's render distance, not the one adapted to frame times
+    @Inject(method = "saveOptions", at = @At("HEAD"))
+    private void beforeSave(CallbackInfo ci) {
+        OptimizeManager manager = EnigmaticClient.getOptimizeManager();
+        if (manager != null) manager.getRenderDistanceController().beforeSaveOptions();
+    }
+
+    @Inject(method = "saveOptions", at = @At("RETURN"))
+    private void afterSave(CallbackInfo ci) {
+        OptimizeManager manager = EnigmaticClient.getOptimizeManager();
+        if (manager != null) manager.getRenderDistanceController().afterSaveOptions();
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import com.github.eatgrapes.enigmaticclient.init.StartupProfiler;
+import net.minecraftforge.fml.common.LoadController;
+import net.minecraftforge.fml.common.LoaderState;
+import net.minecraftforge.fml.common.ModContainer;
+import net.minecraftforge.fml.common.event.FMLEvent;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(value = LoadController.class, remap = false)
+public abstract class MixinLoadController {
+
+    @Inject(method = "distributeStateMessage(Lnet/minecraftforge/fml/common/LoaderState;[Ljava/lang/Object;)V", at = @At("HEAD"))
+    private void onDistributeStateMessageHead(LoaderState state, Object[] eventData, CallbackInfo ci) {
+        StartupProfiler.begin("fml", state.name());
+    }
+
+    @Inject(method = "distributeStateMessage(Lnet/minecraftforge/fml/common/LoaderState;[Ljava/lang/Object;)V", at = @At("RETURN"))
+    private void onDistributeStateMessageReturn(LoaderState state, Object[] eventData, CallbackInfo ci) {
+        StartupProfiler.end();
+    }
+
+    @Inject(method = "sendEventToModContainer", at = @At("HEAD"))
+    private void onSendEventHead(FMLEvent stateEvent, ModContainer mod, CallbackInfo ci) {
+        StartupProfiler.begin("mod", mod.getModId() + " " + stateEvent.getEventType());
+    }
+
+    @Inject(method = "sendEventToModContainer", at = @At("RETURN"))
+    private void onSendEventReturn(FMLEvent stateEvent, ModContainer mod, CallbackInfo ci) {
+        StartupProfiler.end();
+    }
+}
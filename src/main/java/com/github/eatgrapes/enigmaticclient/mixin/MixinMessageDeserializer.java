@@ -0,0 +1,34 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import com.github.eatgrapes.enigmaticclient.network.NetworkMetrics;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import net.minecraft.network.EnumPacketDirection;
+import net.minecraft.network.Packet;
+import net.minecraft.util.MessageDeserializer;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.List;
+
+@Mixin(MessageDeserializer.class)
+public abstract class MixinMessageDeserializer {
+
+    @Shadow @Final private EnumPacketDirection direction;
+
+    // decode implements a Netty method; each input buffer is one frame, read completely by the time it returns
+    @Inject(
+        method = "decode(Lio/netty/channel/ChannelHandlerContext;Lio/netty/buffer/ByteBuf;Ljava/util/List;)V",
+        at = @At("RETURN"),
+        remap = false
+    )
+    private void onDecode(ChannelHandlerContext context, ByteBuf in, List<Object> out, CallbackInfo ci) {
+        if (direction == EnumPacketDirection.CLIENTBOUND && !out.isEmpty()) {
+            NetworkMetrics.getInstance().onInbound((Packet<?>) out.get(out.size() - 1), in.readerIndex());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import com.github.eatgrapes.enigmaticclient.network.NetworkMetrics;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import net.minecraft.network.EnumPacketDirection;
+import net.minecraft.network.Packet;
+import net.minecraft.util.MessageSerializer;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(MessageSerializer.class)
+public abstract class MixinMessageSerializer {
+
+    @Shadow @Final private EnumPacketDirection direction;
+
+    // encode implements a Netty method; the output buffer is allocated per packet, so its size is the packet's
+    @Inject(
+        method = "encode(Lio/netty/channel/ChannelHandlerContext;Lnet/minecraft/network/Packet;Lio/netty/buffer/ByteBuf;)V",
+        at = @At("RETURN"),
+        remap = false
+    )
+    private void onEncode(ChannelHandlerContext context, Packet<?> packet, ByteBuf out, CallbackInfo ci) {
+        // The integrated server shares this class; only count what the client sends
+        if (direction == EnumPacketDirection.SERVERBOUND) {
+            NetworkMetrics.getInstance().onOutbound(packet, out.writerIndex());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import com.github.eatgrapes.enigmaticclient.config.ConfigManager;
+import com.github.eatgrapes.enigmaticclient.optimize.ResourceReloadPipeline;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.resources.IReloadableResourceManager;
+import net.minecraft.client.resources.IResourcePack;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.List;
+
+@Mixin(Minecraft.class)
+public abstract class MixinMinecraft {
+
+    // Runs on the client thread however the game exits, before the JVM is told to stop
+    @Inject(method = "shutdownMinecraftApplet", at = @At("HEAD"))
+    private void onShutdown(CallbackInfo ci) {
+        ConfigManager.flush();
+    }
+
+    // Both calls: a failing reload is caught here and retried with the default packs
+    @Redirect(
+        method = "refreshResources",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/client/resources/IReloadableResourceManager;reloadResources(Ljava/util/List;)V"
+        )
+    )
+    private void onReloadResources(IReloadableResourceManager resourceManager, List<IResourcePack> resourcePacks) {
+        ResourceReloadPipeline pipeline = ResourceReloadPipeline.getInstance();
+        pipeline.beginReload();
+        boolean completed = false;
+        try {
+            resourceManager.reloadResources(resourcePacks);
+            completed = true;
+        } finally {
+            pipeline.endReload(completed);
+        }
+    }
+}
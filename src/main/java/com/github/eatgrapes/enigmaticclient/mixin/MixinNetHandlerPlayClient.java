@@ -0,0 +1,23 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import com.github.eatgrapes.enigmaticclient.optimize.ChunkDecoder;
+import net.minecraft.client.network.NetHandlerPlayClient;
+import net.minecraft.world.chunk.Chunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+@Mixin(NetHandlerPlayClient.class)
+public abstract class MixinNetHandlerPlayClient {
+
+    @Redirect(
+        method = {"handleChunkData", "handleMapChunkBulk"},
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/world/chunk/Chunk;fillChunk([BIZ)V"
+        )
+    )
+    private void onFillChunk(Chunk chunk, byte[] data, int mask, boolean full) {
+        ChunkDecoder.getInstance().fillChunk(chunk, data, mask, full);
+    }
+}
@@ -1,9 +1,9 @@
 package com.github.eatgrapes.enigmaticclient.mixin;
 
-import com.github.eatgrapes.enigmaticclient.EnigmaticClient;
+import com.github.eatgrapes.enigmaticclient.network.PacketInterceptors;
+import io.netty.channel.ChannelHandlerContext;
 import net.minecraft.network.NetworkManager;
 import net.minecraft.network.Packet;
-import net.minecraft.network.play.client.C01PacketChatMessage;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -18,17 +18,21 @@ public abstract class MixinNetworkManager {
         cancellable = true
     )
     private void onSendPacket(Packet<?> packet, CallbackInfo ci) {
-        if (packet instanceof C01PacketChatMessage) {
-            C01PacketChatMessage chatPacket = (C01PacketChatMessage) packet;
-            String message = chatPacket.getMessage();
-            
-            System.out.println("[Enigmatic] Command check: " + message);
-            
-            if (message.toLowerCase().startsWith(".eni")) {
-                EnigmaticClient.handleCommand(message);
-                ci.cancel();
-                System.out.println("[Enigmatic] Blocked command packet");
-            }
+        if (PacketInterceptors.outbound().dispatch(packet)) {
+            ci.cancel();
         }
     }
-}
\ No newline at end of file
+
+    // channelRead0 implements a Netty method, so its name is never obfuscated
+    @Inject(
+        method = "channelRead0(Lio/netty/channel/ChannelHandlerContext;Lnet/minecraft/network/Packet;)V",
+        at = @At("HEAD"),
+        cancellable = true,
+        remap = false
+    )
+    private void onChannelRead(ChannelHandlerContext context, Packet<?> packet, CallbackInfo ci) {
+        if (PacketInterceptors.inbound().dispatch(packet)) {
+            ci.cancel();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import com.github.eatgrapes.enigmaticclient.network.NetworkMetrics;
+import com.google.common.util.concurrent.ListenableFuture;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.INetHandler;
+import net.minecraft.network.Packet;
+import net.minecraft.network.PacketThreadUtil;
+import net.minecraft.util.IThreadListener;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+@Mixin(PacketThreadUtil.class)
+public abstract class MixinPacketThreadUtil {
+
+    @Redirect(
+        method = "checkThreadAndEnqueue",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/util/IThreadListener;addScheduledTask(Ljava/lang/Runnable;)Lcom/google/common/util/concurrent/ListenableFuture;"
+        )
+    )
+    private static ListenableFuture<Object> onEnqueue(IThreadListener listener, Runnable task,
+                                                      Packet<?> packet, INetHandler handler, IThreadListener target) {
+        // The integrated server enqueues through here too; only time the client's handlers
+        if (!(listener instanceof Minecraft)) return listener.addScheduledTask(task);
+        return listener.addScheduledTask(NetworkMetrics.getInstance().timeHandler(packet, task));
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import com.github.eatgrapes.enigmaticclient.optimize.CullingEngine;
+import com.github.eatgrapes.enigmaticclient.optimize.LightingCache;
+import net.minecraft.client.renderer.RenderGlobal;
+import net.minecraft.client.renderer.culling.ICamera;
+import net.minecraft.client.renderer.entity.RenderManager;
+import net.minecraft.entity.Entity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(RenderGlobal.class)
+public abstract class MixinRenderGlobal {
+
+    @Inject(method = "renderEntities", at = @At("HEAD"))
+    private void onRenderEntities(Entity renderViewEntity, ICamera camera, float partialTicks, CallbackInfo ci) {
+        CullingEngine.getInstance().beginFrame(renderViewEntity, camera, partialTicks);
+    }
+
+    @Redirect(
+        method = "renderEntities",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/client/renderer/entity/RenderManager;shouldRender(Lnet/minecraft/entity/Entity;Lnet/minecraft/client/renderer/culling/ICamera;DDD)Z"
+        )
+    )
+    private boolean onShouldRender(RenderManager renderManager, Entity entity, ICamera camera, double camX, double camY, double camZ) {
+        return CullingEngine.getInstance().shouldRender(renderManager, entity, camera, camX, camY, camZ);
+    }
+
+    @Inject(method = "markBlocksForUpdate", at = @At("HEAD"))
+    private void onMarkBlocksForUpdate(int x1, int y1, int z1, int x2, int y2, int z2, CallbackInfo ci) {
+        LightingCache.getInstance().invalidateBlocks(x1, z1, x2, z2);
+    }
+}
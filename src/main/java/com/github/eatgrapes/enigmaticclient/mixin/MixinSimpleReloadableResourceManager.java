@@ -0,0 +1,29 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import com.github.eatgrapes.enigmaticclient.init.StartupProfiler;
+import net.minecraft.client.resources.IResourceManager;
+import net.minecraft.client.resources.IResourceManagerReloadListener;
+import net.minecraft.client.resources.SimpleReloadableResourceManager;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+@Mixin(SimpleReloadableResourceManager.class)
+public abstract class MixinSimpleReloadableResourceManager {
+
+    @Redirect(
+        method = "notifyReloadListeners",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/client/resources/IResourceManagerReloadListener;onResourceManagerReload(Lnet/minecraft/client/resources/IResourceManager;)V"
+        )
+    )
+    private void onNotifyReloadListener(IResourceManagerReloadListener listener, IResourceManager resourceManager) {
+        StartupProfiler.begin("reload", listener.getClass().getName());
+        try {
+            listener.onResourceManagerReload(resourceManager);
+        } finally {
+            StartupProfiler.end();
+        }
+    }
+}
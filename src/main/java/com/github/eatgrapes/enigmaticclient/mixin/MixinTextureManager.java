@@ -0,0 +1,42 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import com.github.eatgrapes.enigmaticclient.optimize.ResourceReloadPipeline;
+import com.github.eatgrapes.enigmaticclient.optimize.TextureResidencyManager;
+import net.minecraft.client.renderer.texture.ITextureObject;
+import net.minecraft.client.renderer.texture.TextureManager;
+import net.minecraft.util.ResourceLocation;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(TextureManager.class)
+public abstract class MixinTextureManager {
+
+    @Inject(method = "loadTexture", at = @At("RETURN"))
+    private void onLoadTexture(ResourceLocation location, ITextureObject texture, CallbackInfoReturnable<Boolean> cir) {
+        // On failure the manager registers the missing texture instead, which is not worth tracking
+        if (cir.getReturnValue()) {
+            TextureResidencyManager.getInstance().onTextureLoaded(location, texture);
+        }
+    }
+
+    @Inject(method = "deleteTexture", at = @At("HEAD"))
+    private void onDeleteTexture(ResourceLocation location, CallbackInfo ci) {
+        TextureResidencyManager.getInstance().onTextureDeleted(location);
+    }
+
+    @Redirect(
+        method = "onResourceManagerReload",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/client/renderer/texture/TextureManager;loadTexture(Lnet/minecraft/util/ResourceLocation;Lnet/minecraft/client/renderer/texture/ITextureObject;)Z"
+        )
+    )
+    private boolean onReloadTexture(TextureManager textureManager, ResourceLocation location, ITextureObject texture) {
+        if (ResourceReloadPipeline.getInstance().deferReload(location, texture)) return true;
+        return textureManager.loadTexture(location, texture);
+    }
+}
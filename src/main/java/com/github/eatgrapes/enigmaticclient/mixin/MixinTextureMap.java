@@ -0,0 +1,72 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import com.github.eatgrapes.enigmaticclient.optimize.ResourceReloadPipeline;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.client.renderer.texture.TextureMap;
+import net.minecraft.client.resources.IResource;
+import net.minecraft.client.resources.IResourceManager;
+import net.minecraft.util.ResourceLocation;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+@Mixin(TextureMap.class)
+public abstract class MixinTextureMap {
+
+    // After the pre-stitch event, so sprites that mods register from it are prefetched too
+    @Inject(
+        method = "loadTextureAtlas",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraftforge/client/ForgeHooksClient;onTextureStitchedPre(Lnet/minecraft/client/renderer/texture/TextureMap;)V",
+            shift = At.Shift.AFTER,
+            remap = false
+        )
+    )
+    private void onTextureStitchedPre(IResourceManager resourceManager, CallbackInfo ci) {
+        AccessorTextureMap self = (AccessorTextureMap) this;
+        List<ResourceLocation> locations = new ArrayList<>();
+        for (TextureAtlasSprite sprite : self.getMapRegisteredSprites().values()) {
+            ResourceLocation location = new ResourceLocation(sprite.getIconName());
+            // Sprites with a custom loader read their own data
+            if (sprite.hasCustomLoader(resourceManager, location)) continue;
+            locations.add(self.invokeCompleteResourceLocation(location, 0));
+        }
+        ResourceReloadPipeline.getInstance().prefetchSprites(resourceManager, self.getBasePath(), locations);
+    }
+
+    @Redirect(
+        method = "loadTextureAtlas",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/client/resources/IResourceManager;getResource(Lnet/minecraft/util/ResourceLocation;)Lnet/minecraft/client/resources/IResource;"
+        )
+    )
+    private IResource onGetResource(IResourceManager resourceManager, ResourceLocation location) throws IOException {
+        return ResourceReloadPipeline.getInstance().getResource(resourceManager, location);
+    }
+
+    @Redirect(
+        method = "loadTextureAtlas",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/client/renderer/texture/TextureUtil;readBufferedImage(Ljava/io/InputStream;)Ljava/awt/image/BufferedImage;"
+        )
+    )
+    private BufferedImage onReadBufferedImage(InputStream stream) throws IOException {
+        return ResourceReloadPipeline.getInstance().readBufferedImage(stream);
+    }
+
+    @Inject(method = "loadTextureAtlas", at = @At("RETURN"))
+    private void onLoadTextureAtlasReturn(IResourceManager resourceManager, CallbackInfo ci) {
+        ResourceReloadPipeline.getInstance().endAtlas();
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.eatgrapes.enigmaticclient.mixin;
+
+import com.github.eatgrapes.enigmaticclient.optimize.TextureResidencyManager;
+import net.minecraft.client.renderer.texture.TextureUtil;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(TextureUtil.class)
+public abstract class MixinTextureUtil {
+
+    @Inject(method = "allocateTextureImpl", at = @At("HEAD"))
+    private static void onAllocateTextureImpl(int glTextureId, int mipmapLevels, int width, int height, CallbackInfo ci) {
+        TextureResidencyManager.getInstance().onAllocate(glTextureId, mipmapLevels, width, height);
+    }
+}
@@ -0,0 +1,280 @@
+package com.github.eatgrapes.enigmaticclient.network;
+
+import com.github.eatgrapes.enigmaticclient.mixin.AccessorC00PacketKeepAlive;
+import com.github.eatgrapes.enigmaticclient.mixin.AccessorS00PacketKeepAlive;
+import com.github.eatgrapes.enigmaticclient.util.LatencyHistogram;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.network.NetHandlerPlayClient;
+import net.minecraft.client.network.NetworkPlayerInfo;
+import net.minecraft.network.Packet;
+import net.minecraft.network.play.client.C00PacketKeepAlive;
+import net.minecraft.network.play.client.C0EPacketClickWindow;
+import net.minecraft.network.play.client.C0FPacketConfirmTransaction;
+import net.minecraft.network.play.server.S00PacketKeepAlive;
+import net.minecraft.network.play.server.S32PacketConfirmTransaction;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and latency histograms for the client's connection, to tell whether lag comes from the server,
+ * the network or the client itself.
+ * <p>
+ * Per packet class it counts packets and bytes in each direction (bytes as serialized, before compression) and
+ * the time the client thread spends handling the packet. Latency is split into:
+ * <ul>
+ *     <li>round trip: inventory clicks until the server confirms the matching transaction, measured here;</li>
+ *     <li>server ping: the response time the server reports for this player in the tab list;</li>
+ *     <li>reply delay: keep-alives and transactions from the server until this client answers them;</li>
+ *     <li>queue wait: packets waiting for the client thread before their handler runs.</li>
+ * </ul>
+ * All memory is fixed once the packet classes of a session have been seen. Counting is lock-free and safe from
+ * the network and client threads.
+ */
+public final class NetworkMetrics {
+    private static final NetworkMetrics INSTANCE = new NetworkMetrics();
+
+    private static final long RATE_INTERVAL_NANOS = 1_000_000_000L;
+    // Outstanding probes remembered for matching replies; unanswered ones are overwritten
+    private static final int PROBE_SLOTS = 32;
+    private static final long KEEP_ALIVE = 1L << 40;
+    private static final long TRANSACTION = 2L << 40;
+    private static final long CLICK = 3L << 40;
+
+    // Stats by concrete packet class; replaced, never mutated, once published
+    private volatile Map<Class<?>, PacketStats> stats = new IdentityHashMap<>();
+
+    private final AtomicLong inPackets = new AtomicLong();
+    private final AtomicLong outPackets = new AtomicLong();
+    private final AtomicLong inBytes = new AtomicLong();
+    private final AtomicLong outBytes = new AtomicLong();
+
+    private final LatencyHistogram roundTrip = new LatencyHistogram();
+    private final LatencyHistogram serverPing = new LatencyHistogram();
+    private final LatencyHistogram replyDelay = new LatencyHistogram();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+
+    // Probe keys and their send or receive times, guarded by probeKeys
+    private final long[] probeKeys = new long[PROBE_SLOTS];
+    private final long[] probeNanos = new long[PROBE_SLOTS];
+    private int probeNext;
+
+    // Per-second rates, client thread only
+    private long rateStartNanos = System.nanoTime();
+    private long lastInPackets, lastOutPackets, lastInBytes, lastOutBytes;
+    private volatile int inPacketsPerSecond, outPacketsPerSecond, inBytesPerSecond, outBytesPerSecond;
+
+    private NetworkMetrics() {
+    }
+
+    public static NetworkMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Register the interceptors that time keep-alives and transactions.
+     */
+    public void registerInterceptors() {
+        PacketInterceptors.inbound().register(S00PacketKeepAlive.class, packet -> {
+            remember(KEEP_ALIVE | ((AccessorS00PacketKeepAlive) packet).getId() & 0xFFFFFFFFL);
+            return false;
+        });
+        PacketInterceptors.outbound().register(C00PacketKeepAlive.class, packet -> {
+            match(KEEP_ALIVE | ((AccessorC00PacketKeepAlive) packet).getKey() & 0xFFFFFFFFL, replyDelay);
+            return false;
+        });
+        PacketInterceptors.inbound().register(S32PacketConfirmTransaction.class, packet -> {
+            // The server answers clicks with accepted transactions and probes the client with rejected ones
+            long transaction = transactionKey(packet.getWindowId(), packet.getActionNumber());
+            if (!match(CLICK | transaction, roundTrip)) remember(TRANSACTION | transaction);
+            return false;
+        });
+        PacketInterceptors.outbound().register(C0FPacketConfirmTransaction.class, packet -> {
+            match(TRANSACTION | transactionKey(packet.getWindowId(), packet.getUid()), replyDelay);
+            return false;
+        });
+        PacketInterceptors.outbound().register(C0EPacketClickWindow.class, packet -> {
+            remember(CLICK | transactionKey(packet.getWindowId(), packet.getActionNumber()));
+            return false;
+        });
+    }
+
+    private static long transactionKey(int windowId, short action) {
+        return (windowId & 0xFFFFL) << 16 | action & 0xFFFF;
+    }
+
+    private void remember(long key) {
+        synchronized (probeKeys) {
+            probeKeys[probeNext] = key;
+            probeNanos[probeNext] = System.nanoTime();
+            probeNext = (probeNext + 1) % PROBE_SLOTS;
+        }
+    }
+
+    private boolean match(long key, LatencyHistogram histogram) {
+        long start;
+        synchronized (probeKeys) {
+            int slot = -1;
+            for (int i = 0; i < PROBE_SLOTS; i++) {
+                if (probeKeys[i] == key) {
+                    slot = i;
+                    break;
+                }
+            }
+            if (slot < 0) return false;
+            probeKeys[slot] = 0;
+            start = probeNanos[slot];
+        }
+        histogram.record((System.nanoTime() - start) / 1000L);
+        return true;
+    }
+
+    /**
+     * A packet was read from the connection. Network thread.
+     */
+    public void onInbound(Packet<?> packet, int bytes) {
+        PacketStats stats = statsFor(packet.getClass());
+        stats.inCount.incrementAndGet();
+        stats.inBytes.addAndGet(bytes);
+        inPackets.incrementAndGet();
+        inBytes.addAndGet(bytes);
+    }
+
+    /**
+     * A packet was written to the connection. Network thread.
+     */
+    public void onOutbound(Packet<?> packet, int bytes) {
+        PacketStats stats = statsFor(packet.getClass());
+        stats.outCount.incrementAndGet();
+        stats.outBytes.addAndGet(bytes);
+        outPackets.incrementAndGet();
+        outBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Wrap the client-thread task that handles a packet so its queue wait and run time are recorded.
+     */
+    public Runnable timeHandler(Packet<?> packet, Runnable task) {
+        PacketStats stats = statsFor(packet.getClass());
+        long enqueuedNanos = System.nanoTime();
+        return () -> {
+            long startNanos = System.nanoTime();
+            queueWait.record((startNanos - enqueuedNanos) / 1000L);
+            try {
+                task.run();
+            } finally {
+                stats.handler.record((System.nanoTime() - startNanos) / 1000L);
+            }
+        };
+    }
+
+    private PacketStats statsFor(Class<?> packetClass) {
+        PacketStats found = stats.get(packetClass);
+        return found != null ? found : create(packetClass);
+    }
+
+    private synchronized PacketStats create(Class<?> packetClass) {
+        PacketStats found = stats.get(packetClass);
+        if (found != null) return found;
+        found = new PacketStats(packetClass.getSimpleName());
+        Map<Class<?>, PacketStats> next = new IdentityHashMap<>(stats);
+        next.put(packetClass, found);
+        stats = next;
+        return found;
+    }
+
+    /**
+     * Update per-second rates and sample the server-reported ping. Called every client tick.
+     */
+    public void tick(Minecraft mc) {
+        long now = System.nanoTime();
+        long elapsed = now - rateStartNanos;
+        if (elapsed < RATE_INTERVAL_NANOS) return;
+        rateStartNanos = now;
+
+        inPacketsPerSecond = perSecond(inPackets.get() - lastInPackets, elapsed);
+        outPacketsPerSecond = perSecond(outPackets.get() - lastOutPackets, elapsed);
+        inBytesPerSecond = perSecond(inBytes.get() - lastInBytes, elapsed);
+        outBytesPerSecond = perSecond(outBytes.get() - lastOutBytes, elapsed);
+        lastInPackets = inPackets.get();
+        lastOutPackets = outPackets.get();
+        lastInBytes = inBytes.get();
+        lastOutBytes = outBytes.get();
+        for (PacketStats packetStats : stats.values()) {
+            long total = packetStats.inCount.get() + packetStats.outCount.get();
+            packetStats.perSecond = perSecond(total - packetStats.lastTotal, elapsed);
+            packetStats.lastTotal = total;
+        }
+
+        // Sampled once a second, so the histogram is weighted by time rather than by server updates
+        NetHandlerPlayClient handler = mc.getNetHandler();
+        if (handler != null && mc.thePlayer != null) {
+            NetworkPlayerInfo info = handler.getPlayerInfo(mc.thePlayer.getUniqueID());
+            if (info != null && info.getResponseTime() > 0) serverPing.record(info.getResponseTime() * 1000L);
+        }
+    }
+
+    private static int perSecond(long delta, long elapsedNanos) {
+        return (int) (delta * RATE_INTERVAL_NANOS / elapsedNanos);
+    }
+
+    /**
+     * Clear histograms and per-type handler times, e.g. after switching servers.
+     */
+    public void reset() {
+        roundTrip.reset();
+        serverPing.reset();
+        replyDelay.reset();
+        queueWait.reset();
+        for (PacketStats packetStats : stats.values()) packetStats.handler.reset();
+    }
+
+    /**
+     * Packet classes seen so far, busiest first.
+     */
+    public List<PacketStats> getPacketStats() {
+        List<PacketStats> list = new ArrayList<>(stats.values());
+        list.sort((a, b) -> Integer.compare(b.perSecond, a.perSecond));
+        return list;
+    }
+
+    public LatencyHistogram getRoundTrip() { return roundTrip; }
+    public LatencyHistogram getServerPing() { return serverPing; }
+    public LatencyHistogram getReplyDelay() { return replyDelay; }
+    public LatencyHistogram getQueueWait() { return queueWait; }
+
+    public int getInPacketsPerSecond() { return inPacketsPerSecond; }
+    public int getOutPacketsPerSecond() { return outPacketsPerSecond; }
+    public int getInBytesPerSecond() { return inBytesPerSecond; }
+    public int getOutBytesPerSecond() { return outBytesPerSecond; }
+    public long getInPackets() { return inPackets.get(); }
+    public long getOutPackets() { return outPackets.get(); }
+
+    /**
+     * Counters for one packet class.
+     */
+    public static final class PacketStats {
+        public final String name;
+        final AtomicLong inCount = new AtomicLong();
+        final AtomicLong inBytes = new AtomicLong();
+        final AtomicLong outCount = new AtomicLong();
+        final AtomicLong outBytes = new AtomicLong();
+        final LatencyHistogram handler = new LatencyHistogram();
+        private long lastTotal;
+        private volatile int perSecond;
+
+        PacketStats(String name) {
+            this.name = name;
+        }
+
+        public long getInCount() { return inCount.get(); }
+        public long getInBytes() { return inBytes.get(); }
+        public long getOutCount() { return outCount.get(); }
+        public long getOutBytes() { return outBytes.get(); }
+        public LatencyHistogram getHandler() { return handler; }
+        public int getPerSecond() { return perSecond; }
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.eatgrapes.enigmaticclient.network;
+
+import net.minecraft.network.Packet;
+
+/**
+ * Sees packets of one type as they are sent or received.
+ * Outbound interceptors run on whichever thread sends the packet, usually the client thread but sometimes the
+ * network thread. Inbound interceptors run on the network thread before the packet is handled.
+ */
+@FunctionalInterface
+public interface PacketInterceptor<P extends Packet<?>> {
+
+    /**
+     * @param packet The packet being sent or received.
+     * @return true to drop it.
+     */
+    boolean intercept(P packet);
+}
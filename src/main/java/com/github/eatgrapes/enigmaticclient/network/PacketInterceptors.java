@@ -0,0 +1,123 @@
+package com.github.eatgrapes.enigmaticclient.network;
+
+import com.github.eatgrapes.enigmaticclient.util.AsyncLogger;
+import net.minecraft.network.Packet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registry of {@link PacketInterceptor}s for one direction: {@link #outbound()} is dispatched from
+ * {@code NetworkManager.sendPacket}, {@link #inbound()} from {@code NetworkManager.channelRead0}.
+ * <p>
+ * Dispatch is one identity lookup of the packet's class in a copy-on-write table of handler arrays, so sending
+ * a packet nobody intercepts costs a hash probe and sending one that is intercepted costs a loop over a plain
+ * array. An interceptor registered for a class also sees its subclasses (e.g. {@code C03PacketPlayer} covers
+ * the position and look packets), and one registered for an interface sees every class implementing it, so
+ * registering for {@link Packet} sees all packets. Handlers of the class itself come first, then those of its
+ * superclasses and interfaces; an interceptor reachable through several of them runs once. Each concrete class
+ * is resolved once on first send and then cached.
+ */
+public final class PacketInterceptors {
+    private static final PacketInterceptors OUTBOUND = new PacketInterceptors("outbound");
+    private static final PacketInterceptors INBOUND = new PacketInterceptors("inbound");
+    private static final PacketInterceptor<?>[] NONE = new PacketInterceptor<?>[0];
+
+    // Registered interceptors by the class they were registered for, guarded by this
+    private final Map<Class<?>, List<PacketInterceptor<?>>> registered = new IdentityHashMap<>();
+    // Resolved handlers by concrete packet class; replaced, never mutated, once published
+    private volatile Map<Class<?>, PacketInterceptor<?>[]> table = new IdentityHashMap<>();
+    private volatile boolean empty = true;
+    private final String direction;
+
+    private PacketInterceptors(String direction) {
+        this.direction = direction;
+    }
+
+    public static PacketInterceptors outbound() {
+        return OUTBOUND;
+    }
+
+    public static PacketInterceptors inbound() {
+        return INBOUND;
+    }
+
+    public synchronized <P extends Packet<?>> void register(Class<P> packetClass, PacketInterceptor<? super P> interceptor) {
+        registered.computeIfAbsent(packetClass, k -> new ArrayList<>()).add(interceptor);
+        rebuild();
+    }
+
+    public synchronized void unregister(PacketInterceptor<?> interceptor) {
+        registered.values().removeIf(list -> list.remove(interceptor) && list.isEmpty());
+        rebuild();
+    }
+
+    /**
+     * Run the interceptors for a packet.
+     * @return true if one of them dropped it.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public boolean dispatch(Packet<?> packet) {
+        if (empty) return false;
+        PacketInterceptor<?>[] handlers = table.get(packet.getClass());
+        if (handlers == null) handlers = resolve(packet.getClass());
+
+        for (PacketInterceptor handler : handlers) {
+            try {
+                if (handler.intercept(packet)) return true;
+            } catch (Throwable t) {
+                // A broken interceptor must not stop packets from flowing
+                AsyncLogger.error("The " + direction + " packet interceptor failed on " + packet.getClass().getSimpleName(), t);
+            }
+        }
+        return false;
+    }
+
+    private synchronized PacketInterceptor<?>[] resolve(Class<?> packetClass) {
+        PacketInterceptor<?>[] handlers = table.get(packetClass);
+        if (handlers != null) return handlers;
+
+        List<PacketInterceptor<?>> found = new ArrayList<>();
+        collect(packetClass, Collections.newSetFromMap(new IdentityHashMap<>()), found);
+        handlers = found.isEmpty() ? NONE : found.toArray(NONE);
+
+        Map<Class<?>, PacketInterceptor<?>[]> next = new IdentityHashMap<>(table);
+        next.put(packetClass, handlers);
+        table = next;
+        return handlers;
+    }
+
+    /**
+     * Add the handlers registered for a type, its superclasses and all interfaces it implements.
+     */
+    private void collect(Class<?> type, Set<Class<?>> visited, List<PacketInterceptor<?>> found) {
+        if (type == null || type == Object.class || !visited.add(type)) return;
+        List<PacketInterceptor<?>> list = registered.get(type);
+        if (list != null) {
+            for (PacketInterceptor<?> interceptor : list) {
+                if (!containsIdentical(found, interceptor)) found.add(interceptor);
+            }
+        }
+        collect(type.getSuperclass(), visited, found);
+        for (Class<?> implemented : type.getInterfaces()) {
+            collect(implemented, visited, found);
+        }
+    }
+
+    private static boolean containsIdentical(List<?> list, Object value) {
+        for (Object element : list) {
+            if (element == value) return true;
+        }
+        return false;
+    }
+
+    private void rebuild() {
+        // Concrete classes are resolved again lazily against the new registrations
+        table = new IdentityHashMap<>();
+        empty = registered.isEmpty();
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.eatgrapes.enigmaticclient.ui;
+
+/**
+ * One value tweened from a start to an end over a duration, owned by whoever started it.
+ * <p>
+ * Instances come from and return to the pool of the {@link AnimationManager}, which advances them once per
+ * frame; the value therefore only changes between frames. A finished animation keeps its end value until its
+ * owner releases it, and must not be used after that.
+ */
+public final class Animation {
+    private float from, to;
+    private long startMillis, durationMillis;
+    private Easing easing;
+    private Runnable onComplete;
+    private float value;
+    private boolean finished;
+    boolean inUse;
+
+    Animation() {
+    }
+
+    void start(float from, float to, long durationMillis, Easing easing, Runnable onComplete, long nowMillis) {
+        this.from = from;
+        this.to = to;
+        this.durationMillis = Math.max(1, durationMillis);
+        this.easing = easing;
+        this.onComplete = onComplete;
+        this.startMillis = nowMillis;
+        this.value = from;
+        this.finished = false;
+        this.inUse = true;
+    }
+
+    /**
+     * Advance to the frame time.
+     * @return true if the animation finished with this frame.
+     */
+    boolean update(long nowMillis) {
+        float progress = Math.min(1.0f, (float) (nowMillis - startMillis) / durationMillis);
+        value = from + (to - from) * easing.apply(progress);
+        if (progress < 1.0f) return false;
+        value = to;
+        finished = true;
+        return true;
+    }
+
+    Runnable takeCallback() {
+        Runnable callback = onComplete;
+        onComplete = null;
+        return callback;
+    }
+
+    void clear() {
+        easing = null;
+        onComplete = null;
+        inUse = false;
+    }
+
+    public float getValue() { return value; }
+    public float getTarget() { return to; }
+    public boolean isFinished() { return finished; }
+}
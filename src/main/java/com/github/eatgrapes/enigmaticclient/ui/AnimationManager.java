@@ -0,0 +1,86 @@
+package com.github.eatgrapes.enigmaticclient.ui;
+
+import net.minecraft.client.Minecraft;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Advances GUI animations once per rendered frame, on the client thread.
+ * <p>
+ * {@link #update} runs at the start of every frame and samples the clock once, so every animation drawn in a
+ * frame sees the same time and the values never change while a screen is being drawn. Completion callbacks run
+ * from there too, which makes them safe places to change the screen. {@link Animation} objects are pooled:
+ * starting one takes it from the pool and {@link #release} returns it, so steady GUI use allocates nothing.
+ * Client thread only.
+ */
+public final class AnimationManager {
+    private static final AnimationManager INSTANCE = new AnimationManager();
+
+    private static final int MAX_POOLED = 64;
+
+    private final List<Animation> running = new ArrayList<>();
+    private final ArrayDeque<Animation> pool = new ArrayDeque<>();
+    private long frameMillis = Minecraft.getSystemTime();
+
+    private AnimationManager() {
+    }
+
+    public static AnimationManager getInstance() {
+        return INSTANCE;
+    }
+
+    public Animation start(float from, float to, long durationMillis, Easing easing) {
+        return start(from, to, durationMillis, easing, null);
+    }
+
+    /**
+     * Start an animation from the current frame time.
+     * @param onComplete Run on the client thread at the start of the frame in which the animation ends, or null.
+     */
+    public Animation start(float from, float to, long durationMillis, Easing easing, Runnable onComplete) {
+        Animation animation = pool.poll();
+        if (animation == null) animation = new Animation();
+        animation.start(from, to, durationMillis, easing, onComplete, frameMillis);
+        running.add(animation);
+        return animation;
+    }
+
+    /**
+     * Stop an animation without running its callback and return it to the pool. Null and repeated releases are
+     * ignored.
+     */
+    public void release(Animation animation) {
+        if (animation == null || !animation.inUse) return;
+        running.remove(animation);
+        animation.clear();
+        if (pool.size() < MAX_POOLED) pool.push(animation);
+    }
+
+    /**
+     * Advance all running animations to this frame. Called at the start of every render tick.
+     */
+    public void update() {
+        frameMillis = Minecraft.getSystemTime();
+        // Backwards, so animations started by callbacks wait for the next frame
+        for (int i = running.size() - 1; i >= 0; i--) {
+            if (i >= running.size()) continue;
+            Animation animation = running.get(i);
+            if (!animation.update(frameMillis)) continue;
+            running.remove(i);
+            Runnable callback = animation.takeCallback();
+            if (callback != null) {
+                try {
+                    callback.run();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    public int getRunningCount() {
+        return running.size();
+    }
+}
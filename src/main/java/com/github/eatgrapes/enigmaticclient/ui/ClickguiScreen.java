@@ -1,112 +1,508 @@
 package com.github.eatgrapes.enigmaticclient.ui;
 
+import com.github.eatgrapes.enigmaticclient.config.ConfigManager;
+import com.github.eatgrapes.enigmaticclient.module.KeybindManager;
+import com.github.eatgrapes.enigmaticclient.module.Module;
+import com.github.eatgrapes.enigmaticclient.module.ModuleCategory;
+import com.github.eatgrapes.enigmaticclient.module.ModuleManager;
+import com.github.eatgrapes.enigmaticclient.module.settings.BooleanSetting;
+import com.github.eatgrapes.enigmaticclient.module.settings.ColorSetting;
+import com.github.eatgrapes.enigmaticclient.module.settings.EnumSetting;
+import com.github.eatgrapes.enigmaticclient.module.settings.KeybindSetting;
+import com.github.eatgrapes.enigmaticclient.module.settings.NumberSetting;
+import com.github.eatgrapes.enigmaticclient.module.settings.Setting;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiScreen;
-import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.gui.ScaledResolution;
+import net.minecraft.util.ChatAllowedCharacters;
 import org.lwjgl.input.Keyboard;
+import org.lwjgl.input.Mouse;
 import org.lwjgl.opengl.GL11;
 
+import java.awt.Color;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Module browser: categories on the left, a search field on top and the matching modules below.
+ * <p>
+ * The list is a flat array of rows (modules, and the settings of expanded modules) rebuilt only when the search,
+ * category or expansion changes; search uses the prefix index of {@link ModuleManager#search}. Rows have a fixed
+ * height, so each frame only the rows inside the viewport are found by index and drawn, however many modules
+ * there are. Row objects and their value texts are reused between rebuilds, and text goes through the cached
+ * layouts of the {@link RenderBatch2D}. Left click toggles a module, right click shows its settings.
+ */
 public class ClickguiScreen extends GuiScreen {
-    private static final int ANIMATION_DURATION = 400;
-    private static final int CORNER_SEGMENTS = 16; // 每个圆角细分段数
-    private long animationStartTime;
+    private static final long ANIMATION_DURATION = 400;
+    private static final long SCROLL_DURATION = 150;
+
+    // MD3 dark scheme
+    private static final int MD3_PRIMARY = 0xFFD0BCFF; // MD3标准紫色
+    private static final int MD3_ON_PRIMARY = 0xFF381E72;
+    private static final int MD3_SURFACE = 0xF21C1B1F;
+    private static final int MD3_SURFACE_CONTAINER = 0xFF2B2930;
+    private static final int MD3_SURFACE_HIGH = 0xFF36343B;
+    private static final int MD3_ON_SURFACE = 0xFFE6E1E5;
+    private static final int MD3_ON_SURFACE_VARIANT = 0xFFCAC4D0;
+    private static final int MD3_OUTLINE = 0xFF938F99;
+    private static final int MD3_ERROR = 0xFFF2B8B5;
+
+    // Layout in scaled GUI pixels
+    private static final int PANEL_WIDTH = 360;
+    private static final int PANEL_HEIGHT = 240;
+    private static final int PANEL_RADIUS = 16;
+    private static final int PADDING = 8;
+    private static final int SIDEBAR_WIDTH = 80;
+    private static final int HEADER_HEIGHT = 30;
+    private static final int ROW_HEIGHT = 18;
+    private static final int SETTING_INDENT = 12;
+    private static final int EDITOR_WIDTH = 80;
+    private static final int SWITCH_WIDTH = 18;
+    private static final int SWITCH_HEIGHT = 10;
+    private static final int HUE_STEPS = 12;
+    private static final ModuleCategory[] CATEGORIES = ModuleCategory.values();
+
+    private final AnimationManager animations = AnimationManager.getInstance();
+    private Animation openAnimation;
     private boolean closing = false;
-    private final int MD3_PRIMARY = 0xFFD0BCFF; // MD3标准紫色
+
+    // Panel and list bounds, updated in initGui
+    private int panelX, panelY;
+    private int listLeft, listTop, listRight, listBottom;
+    private int scaleFactor;
+
+    private String query = "";
+    private ModuleCategory category;
+    private final Set<Module> expanded = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<Row> rows = new ArrayList<>();
+    // Rows by module or setting, kept across rebuilds
+    private final Map<Object, Row> rowCache = new IdentityHashMap<>();
+
+    private float scrollTarget;
+    private Animation scrollAnimation;
+
+    // Row whose slider is being dragged, and row waiting for a key press
+    private Row dragging;
+    private Row listening;
 
     public ClickguiScreen() {
-        animationStartTime = System.currentTimeMillis();
+        openAnimation = animations.start(0, 1, ANIMATION_DURATION, Easing.EASE_OUT_CUBIC);
+        rebuildRows();
     }
 
     @Override
-    public void drawScreen(int mouseX, int mouseY, float partialTicks) {
-        // 禁用默认背景
-        GlStateManager.enableBlend();
-        GL11.glDisable(GL11.GL_ALPHA_TEST);
+    public void initGui() {
+        panelX = (width - PANEL_WIDTH) / 2;
+        panelY = (height - PANEL_HEIGHT) / 2;
+        listLeft = panelX + SIDEBAR_WIDTH + PADDING;
+        listTop = panelY + HEADER_HEIGHT + PADDING;
+        listRight = panelX + PANEL_WIDTH - PADDING;
+        listBottom = panelY + PANEL_HEIGHT - PADDING;
+        scaleFactor = new ScaledResolution(mc).getScaleFactor();
+        scrollTo(scrollTarget, false);
+    }
 
-        // 计算动画进度
-        float progress = Math.min(1.0f, (System.currentTimeMillis() - animationStartTime) / ANIMATION_DURATION);
-        progress = closing ? 1.0f - progress : progress;
-        progress = (float) Math.pow(progress, 0.6);
+    @Override
+    public void drawScreen(int mouseX, int mouseY, float partialTicks) {
+        // 动画进度，每帧由 AnimationManager 推进
+        float progress = openAnimation.getValue();
 
         // 动态尺寸
-        int panelWidth = (int) (360 * progress);
-        int panelHeight = (int) (240 * progress);
-        int radius = (int) (16 * progress);
+        int panelWidth = (int) (PANEL_WIDTH * progress);
+        int panelHeight = (int) (PANEL_HEIGHT * progress);
+        int radius = (int) (PANEL_RADIUS * progress);
         int x = (this.width - panelWidth) / 2;
         int y = (this.height - panelHeight) / 2;
 
-        // 开启抗锯齿
-        GL11.glEnable(GL11.GL_LINE_SMOOTH);
-        GL11.glHint(GL11.GL_LINE_SMOOTH_HINT, GL11.GL_NICEST);
-        GL11.glEnable(GL11.GL_BLEND);
-        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-
         // 绘制完整圆角面板
-        drawRoundedPanel(x, y, panelWidth, panelHeight, radius);
+        RenderBatch2D batch = RenderBatch2D.getInstance();
+        batch.begin();
+        batch.roundedRect(x, y, panelWidth, panelHeight, radius, MD3_SURFACE);
+        batch.roundedOutline(x, y, panelWidth, panelHeight, radius, 1, MD3_PRIMARY);
+        // Contents only once the panel has its full size
+        boolean open = !closing && openAnimation.isFinished();
+        if (open) drawChrome(batch, mouseX, mouseY);
+        batch.end();
+
+        if (open) drawList(batch, mouseX, mouseY);
 
-        GL11.glEnable(GL11.GL_ALPHA_TEST);
         super.drawScreen(mouseX, mouseY, partialTicks);
     }
 
-private void drawRoundedPanel(int x, int y, int width, int height, int radius) {
-    GL11.glDisable(GL11.GL_TEXTURE_2D);
-    GL11.glColor4f(
-        (MD3_PRIMARY >> 16 & 0xFF) / 255f,
-        (MD3_PRIMARY >> 8 & 0xFF) / 255f,
-        (MD3_PRIMARY & 0xFF) / 255f,
-        (MD3_PRIMARY >> 24 & 0xFF) / 255f
-    );
-
-    // 修复后的drawRect调用（添加颜色参数）
-    drawRect(
-        x + radius, 
-        y + radius, 
-        x + width - radius, 
-        y + height - radius,
-        MD3_PRIMARY // 新增第五个颜色参数
-    );
-
-    // 绘制四个圆角
-    drawRoundedCorner(x + radius, y + radius, radius, 180, 270);
-    drawRoundedCorner(x + width - radius, y + radius, radius, 270, 360);
-    drawRoundedCorner(x + width - radius, y + height - radius, radius, 0, 90);
-    drawRoundedCorner(x + radius, y + height - radius, radius, 90, 180);
-
-    GL11.glEnable(GL11.GL_TEXTURE_2D);
-}
+    private void drawChrome(RenderBatch2D batch, int mouseX, int mouseY) {
+        batch.text("§lEnigmatic", panelX + PADDING + 2, panelY + (HEADER_HEIGHT - GlyphAtlas.LINE_HEIGHT) / 2f + 2,
+            MD3_PRIMARY, false);
+
+        // Search field
+        float searchX = listLeft, searchY = panelY + PADDING;
+        float searchHeight = HEADER_HEIGHT - PADDING;
+        batch.roundedRect(searchX, searchY, listRight - searchX, searchHeight, searchHeight / 2, MD3_SURFACE_CONTAINER);
+        float textX = searchX + 8, textY = searchY + (searchHeight - GlyphAtlas.LINE_HEIGHT) / 2;
+        if (query.isEmpty()) {
+            batch.text("Search modules...", textX, textY, MD3_OUTLINE, false);
+        } else {
+            float textWidth = batch.text(query, textX, textY, MD3_ON_SURFACE, false);
+            if (Minecraft.getSystemTime() / 500 % 2 == 0) batch.rect(textX + textWidth + 1, textY, textX + textWidth + 2,
+                textY + GlyphAtlas.LINE_HEIGHT, MD3_PRIMARY);
+        }
+
+        // Categories, "All" first
+        float entryY = panelY + HEADER_HEIGHT + PADDING;
+        for (int i = -1; i < CATEGORIES.length; i++) {
+            ModuleCategory entry = i < 0 ? null : CATEGORIES[i];
+            float entryX = panelX + PADDING;
+            float entryWidth = SIDEBAR_WIDTH - PADDING;
+            boolean hovered = inside(mouseX, mouseY, entryX, entryY, entryWidth, ROW_HEIGHT);
+            if (entry == category) {
+                batch.roundedRect(entryX, entryY, entryWidth, ROW_HEIGHT, ROW_HEIGHT / 2f, MD3_PRIMARY);
+            } else if (hovered) {
+                batch.roundedRect(entryX, entryY, entryWidth, ROW_HEIGHT, ROW_HEIGHT / 2f, MD3_SURFACE_HIGH);
+            }
+            batch.text(entry == null ? "All" : entry.getDisplayName(), entryX + 10,
+                entryY + (ROW_HEIGHT - GlyphAtlas.LINE_HEIGHT) / 2f,
+                entry == category ? MD3_ON_PRIMARY : MD3_ON_SURFACE_VARIANT, false);
+            entryY += ROW_HEIGHT + 2;
+        }
+    }
+
+    /**
+     * Draw the rows inside the viewport, clipped to the list bounds.
+     */
+    private void drawList(RenderBatch2D batch, int mouseX, int mouseY) {
+        float scroll = getScroll();
+        int first = Math.max(0, (int) (scroll / ROW_HEIGHT));
+        int last = Math.min(rows.size(), (int) Math.ceil((scroll + listBottom - listTop) / ROW_HEIGHT));
+
+        GL11.glEnable(GL11.GL_SCISSOR_TEST);
+        GL11.glScissor(listLeft * scaleFactor, mc.displayHeight - listBottom * scaleFactor,
+            (listRight - listLeft) * scaleFactor, (listBottom - listTop) * scaleFactor);
+        batch.begin();
+        if (rows.isEmpty()) {
+            batch.text("No modules match", listLeft + 6, listTop + 4, MD3_OUTLINE, false);
+        }
+        boolean hoverable = mouseY >= listTop && mouseY < listBottom;
+        for (int i = first; i < last; i++) {
+            float top = listTop + i * ROW_HEIGHT - scroll;
+            Row row = rows.get(i);
+            boolean hovered = hoverable && mouseX >= listLeft && mouseX < listRight && mouseY >= top && mouseY < top + ROW_HEIGHT;
+            if (row.setting == null && !row.bind) {
+                drawModuleRow(batch, row, top, hovered);
+            } else {
+                drawSettingRow(batch, row, top, hovered);
+            }
+        }
+        batch.end();
+        GL11.glDisable(GL11.GL_SCISSOR_TEST);
+    }
+
+    private void drawModuleRow(RenderBatch2D batch, Row row, float top, boolean hovered) {
+        Module module = row.module;
+        batch.roundedRect(listLeft, top + 1, listRight - listLeft, ROW_HEIGHT - 2, 6,
+            hovered ? MD3_SURFACE_HIGH : MD3_SURFACE_CONTAINER);
+        float textY = top + (ROW_HEIGHT - GlyphAtlas.LINE_HEIGHT) / 2f;
+        batch.text(expanded.contains(module) ? "-" : "+", listLeft + 6, textY, MD3_OUTLINE, false);
+        batch.text(module.getName(), listLeft + 16, textY, module.isEnabled() ? MD3_PRIMARY : MD3_ON_SURFACE, false);
+        drawSwitch(batch, listRight - SWITCH_WIDTH - 6, top + (ROW_HEIGHT - SWITCH_HEIGHT) / 2f, module.isEnabled());
+    }
+
+    private void drawSettingRow(RenderBatch2D batch, Row row, float top, boolean hovered) {
+        if (hovered) batch.roundedRect(listLeft + SETTING_INDENT - 4, top + 1, listRight - listLeft - SETTING_INDENT + 4,
+            ROW_HEIGHT - 2, 6, MD3_SURFACE_CONTAINER);
+        float textY = top + (ROW_HEIGHT - GlyphAtlas.LINE_HEIGHT) / 2f;
+        float centerY = top + ROW_HEIGHT / 2f;
+        float editorLeft = listRight - 6 - EDITOR_WIDTH;
+        float editorRight = listRight - 6;
+        batch.text(row.bind ? "Bind" : row.setting.getName(), listLeft + SETTING_INDENT + 4, textY, MD3_ON_SURFACE_VARIANT, false);
+
+        if (row == listening) {
+            batch.text("Press a key...", editorRight - TextRenderer.getInstance().getWidth("Press a key..."), textY,
+                MD3_PRIMARY, false);
+            return;
+        }
+        if (row.bind && row.status != null) {
+            batch.text(row.status, editorRight - TextRenderer.getInstance().getWidth(row.status), textY, MD3_ERROR, false);
+            return;
+        }
+
+        Setting<?> setting = row.setting;
+        if (setting instanceof BooleanSetting) {
+            drawSwitch(batch, editorRight - SWITCH_WIDTH, centerY - SWITCH_HEIGHT / 2f, ((BooleanSetting) setting).get());
+        } else if (setting instanceof NumberSetting) {
+            NumberSetting number = (NumberSetting) setting;
+            float sliderLeft = editorLeft + EDITOR_WIDTH / 2f;
+            float fraction = (float) ((number.get() - number.getMin()) / Math.max(1e-9, number.getMax() - number.getMin()));
+            batch.roundedRect(sliderLeft, centerY - 1.5f, editorRight - sliderLeft, 3, 1.5f, MD3_SURFACE_HIGH);
+            batch.roundedRect(sliderLeft, centerY - 1.5f, (editorRight - sliderLeft) * fraction, 3, 1.5f, MD3_PRIMARY);
+            batch.roundedRect(sliderLeft + (editorRight - sliderLeft) * fraction - 3, centerY - 3, 6, 6, 3, MD3_PRIMARY);
+            String value = row.valueText();
+            batch.text(value, sliderLeft - 4 - TextRenderer.getInstance().getWidth(value), textY, MD3_ON_SURFACE, false);
+        } else if (setting instanceof ColorSetting) {
+            int argb = ((ColorSetting) setting).getArgb();
+            float barRight = editorRight - 14;
+            float step = (barRight - editorLeft) / HUE_STEPS;
+            for (int i = 0; i < HUE_STEPS; i++) {
+                batch.rect(editorLeft + i * step, centerY - 2, editorLeft + (i + 1) * step, centerY + 2,
+                    Color.HSBtoRGB((float) i / HUE_STEPS, 1, 1));
+            }
+            batch.roundedRect(editorRight - 10, centerY - 5, 10, 10, 2, argb | 0xFF000000);
+        } else {
+            // Enums, keybinds and the module bind show their value as text
+            String value = row.valueText();
+            batch.text(value, editorRight - TextRenderer.getInstance().getWidth(value), textY, MD3_PRIMARY, false);
+        }
+    }
+
+    private static void drawSwitch(RenderBatch2D batch, float x, float y, boolean on) {
+        batch.roundedRect(x, y, SWITCH_WIDTH, SWITCH_HEIGHT, SWITCH_HEIGHT / 2f, on ? MD3_PRIMARY : MD3_SURFACE_HIGH);
+        float knobX = on ? x + SWITCH_WIDTH - SWITCH_HEIGHT + 1 : x + 1;
+        batch.roundedRect(knobX, y + 1, SWITCH_HEIGHT - 2, SWITCH_HEIGHT - 2, (SWITCH_HEIGHT - 2) / 2f,
+            on ? MD3_ON_PRIMARY : MD3_OUTLINE);
+    }
 
-    private void drawRoundedCorner(int centerX, int centerY, int radius, int startAngle, int endAngle) {
-        GL11.glBegin(GL11.GL_TRIANGLE_FAN);
-        GL11.glVertex2i(centerX, centerY); // 圆心
+    // ================================== Rows ================================== //
 
-        for (int i = 0; i <= CORNER_SEGMENTS; i++) {
-            float angle = (float) Math.toRadians(startAngle + (endAngle - startAngle) * i / CORNER_SEGMENTS);
-            float x = centerX + radius * (float) Math.cos(angle);
-            float y = centerY + radius * (float) Math.sin(angle);
-            GL11.glVertex2f(x, y);
+    /**
+     * Refill the row list after the search, category or expanded modules changed.
+     */
+    private void rebuildRows() {
+        rows.clear();
+        for (Module module : ModuleManager.getInstance().search(query)) {
+            if (category != null && module.getCategory() != category) continue;
+            Row moduleRow = row(module, module, null, false);
+            rows.add(moduleRow);
+            if (!expanded.contains(module)) continue;
+            // Reading the settings loads them from the profile, so only expanded modules pay for it
+            for (Setting<?> setting : module.getSettings()) {
+                rows.add(row(setting, module, setting, false));
+            }
+            if (moduleRow.bindRow == null) moduleRow.bindRow = new Row(module, null, true);
+            rows.add(moduleRow.bindRow);
         }
+        scrollTo(scrollTarget, false);
+    }
 
-        GL11.glEnd();
+    private Row row(Object key, Module module, Setting<?> setting, boolean bind) {
+        Row row = rowCache.get(key);
+        if (row == null) {
+            row = new Row(module, setting, bind);
+            rowCache.put(key, row);
+        }
+        return row;
+    }
+
+    private Row rowAt(int mouseX, int mouseY) {
+        if (mouseX < listLeft || mouseX >= listRight || mouseY < listTop || mouseY >= listBottom) return null;
+        int index = (int) ((mouseY - listTop + getScroll()) / ROW_HEIGHT);
+        return index >= 0 && index < rows.size() ? rows.get(index) : null;
+    }
+
+    // ================================== Scrolling ================================== //
+
+    private float getScroll() {
+        return scrollAnimation != null ? scrollAnimation.getValue() : scrollTarget;
+    }
+
+    private void scrollTo(float target, boolean animate) {
+        float max = Math.max(0, rows.size() * ROW_HEIGHT - (listBottom - listTop));
+        target = Math.max(0, Math.min(max, target));
+        float current = getScroll();
+        animations.release(scrollAnimation);
+        scrollAnimation = animate && target != current
+            ? animations.start(current, target, SCROLL_DURATION, Easing.EASE_OUT_QUAD)
+            : null;
+        scrollTarget = target;
+    }
+
+    @Override
+    public void handleMouseInput() throws IOException {
+        super.handleMouseInput();
+        int wheel = Mouse.getEventDWheel();
+        if (wheel != 0 && !closing) scrollTo(scrollTarget - Integer.signum(wheel) * ROW_HEIGHT * 3, true);
+    }
+
+    // ================================== Input ================================== //
+
+    @Override
+    protected void mouseClicked(int mouseX, int mouseY, int mouseButton) throws IOException {
+        if (closing || !openAnimation.isFinished()) return;
+        listening = null;
+
+        float entryY = panelY + HEADER_HEIGHT + PADDING;
+        for (int i = -1; i < CATEGORIES.length; i++) {
+            if (inside(mouseX, mouseY, panelX + PADDING, entryY, SIDEBAR_WIDTH - PADDING, ROW_HEIGHT)) {
+                category = i < 0 ? null : CATEGORIES[i];
+                rebuildRows();
+                return;
+            }
+            entryY += ROW_HEIGHT + 2;
+        }
+
+        Row row = rowAt(mouseX, mouseY);
+        if (row == null) return;
+        if (row.setting == null && !row.bind) {
+            if (mouseButton == 0) {
+                row.module.setEnabled(!row.module.isEnabled());
+                ConfigManager.markDirty();
+            } else if (mouseButton == 1) {
+                if (!expanded.remove(row.module)) expanded.add(row.module);
+                rebuildRows();
+            }
+            return;
+        }
+        if (mouseButton != 0) return;
+
+        row.status = null;
+        Setting<?> setting = row.setting;
+        if (row.bind || setting instanceof KeybindSetting) {
+            listening = row;
+        } else if (setting instanceof BooleanSetting) {
+            ((BooleanSetting) setting).toggle();
+        } else if (setting instanceof EnumSetting) {
+            ((EnumSetting<?>) setting).cycle();
+        } else if (setting instanceof NumberSetting || setting instanceof ColorSetting) {
+            dragging = row;
+            drag(mouseX);
+        }
+    }
+
+    @Override
+    protected void mouseClickMove(int mouseX, int mouseY, int clickedMouseButton, long timeSinceLastClick) {
+        if (dragging != null) drag(mouseX);
+    }
+
+    @Override
+    protected void mouseReleased(int mouseX, int mouseY, int state) {
+        dragging = null;
+    }
+
+    /**
+     * Set the dragged slider or hue bar from the mouse position.
+     */
+    private void drag(int mouseX) {
+        float editorLeft = listRight - 6 - EDITOR_WIDTH;
+        float editorRight = listRight - 6;
+        if (dragging.setting instanceof NumberSetting) {
+            NumberSetting number = (NumberSetting) dragging.setting;
+            float sliderLeft = editorLeft + EDITOR_WIDTH / 2f;
+            double fraction = Math.max(0, Math.min(1, (mouseX - sliderLeft) / (editorRight - sliderLeft)));
+            number.set(number.getMin() + fraction * (number.getMax() - number.getMin()));
+        } else {
+            ColorSetting color = (ColorSetting) dragging.setting;
+            float barRight = editorRight - 14;
+            float hue = Math.max(0, Math.min(0.999f, (mouseX - editorLeft) / (barRight - editorLeft)));
+            int argb = color.getArgb();
+            float[] hsb = Color.RGBtoHSB(argb >> 16 & 0xFF, argb >> 8 & 0xFF, argb & 0xFF, null);
+            // Grays have no hue to move, so pick it up at full saturation
+            float saturation = hsb[1] < 0.05f ? 1 : hsb[1];
+            float brightness = hsb[2] < 0.05f ? 1 : hsb[2];
+            color.set(argb & 0xFF000000 | Color.HSBtoRGB(hue, saturation, brightness) & 0xFFFFFF);
+        }
     }
 
     @Override
     protected void keyTyped(char typedChar, int keyCode) {
-        if (keyCode == Keyboard.KEY_ESCAPE) {
+        if (listening != null) {
+            bindListening(keyCode);
+            return;
+        }
+        if (keyCode == Keyboard.KEY_ESCAPE && !closing) {
             closing = true;
-            animationStartTime = System.currentTimeMillis();
-            new Thread(() -> {
-                try {
-                    Thread.sleep(ANIMATION_DURATION);
-                    Minecraft.getMinecraft().displayGuiScreen(null);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }).start();
+            // Shrink from wherever the opening got to, and close on the client thread once done
+            float current = openAnimation.getValue();
+            animations.release(openAnimation);
+            openAnimation = animations.start(current, 0, (long) (ANIMATION_DURATION * current), Easing.EASE_IN_CUBIC, () -> {
+                if (mc.currentScreen == this) mc.displayGuiScreen(null);
+            });
+        } else if (keyCode == Keyboard.KEY_BACK) {
+            if (!query.isEmpty()) setQuery(query.substring(0, query.length() - 1));
+        } else if (ChatAllowedCharacters.isAllowedCharacter(typedChar)) {
+            setQuery(query + typedChar);
         }
     }
 
+    private void setQuery(String newQuery) {
+        query = newQuery;
+        rebuildRows();
+        scrollTo(0, false);
+    }
+
+    /**
+     * Finish a key capture: Escape cancels, Backspace and Delete unbind.
+     */
+    private void bindListening(int keyCode) {
+        Row row = listening;
+        listening = null;
+        if (keyCode == Keyboard.KEY_ESCAPE) return;
+        int key = keyCode == Keyboard.KEY_BACK || keyCode == Keyboard.KEY_DELETE ? Keyboard.KEY_NONE : keyCode;
+        String id = row.bind ? ModuleManager.bindId(row.module) : ((KeybindSetting) row.setting).getBindId();
+        if (id == null) {
+            // Setting of a module that was never registered, so nothing else can hold the key
+            ((KeybindSetting) row.setting).set(key);
+            return;
+        }
+        KeybindManager.Binding conflict = KeybindManager.getInstance().bind(id, key);
+        if (conflict != null) row.status = "Used by " + conflict.id;
+    }
+
+    @Override
+    public void onGuiClosed() {
+        animations.release(openAnimation);
+        animations.release(scrollAnimation);
+    }
+
     @Override
     public boolean doesGuiPauseGame() {
         return false;
     }
-}
\ No newline at end of file
+
+    private static boolean inside(int mouseX, int mouseY, float x, float y, float width, float height) {
+        return mouseX >= x && mouseX < x + width && mouseY >= y && mouseY < y + height;
+    }
+
+    /**
+     * One line of the list: a module, one of its settings, or its keybind.
+     */
+    private static final class Row {
+        final Module module;
+        final Setting<?> setting;
+        final boolean bind;
+        Row bindRow;
+        // Error shown instead of the value, e.g. a keybind conflict
+        String status;
+        // Value text, formatted again only when the value changes
+        private Object shownValue;
+        private String valueText;
+
+        Row(Module module, Setting<?> setting, boolean bind) {
+            this.module = module;
+            this.setting = setting;
+            this.bind = bind;
+        }
+
+        String valueText() {
+            Object value = bind
+                ? KeybindManager.getInstance().getBinding(ModuleManager.bindId(module)).getKey()
+                : setting.get();
+            if (valueText == null || !Objects.equals(value, shownValue)) {
+                shownValue = value;
+                if (bind) valueText = KeybindManager.keyName((Integer) value);
+                else if (setting instanceof NumberSetting) valueText = formatNumber((Double) value);
+                else valueText = setting.format();
+            }
+            return valueText;
+        }
+
+        // Steps like 0.1 leave binary noise, so show at most two decimals
+        private static String formatNumber(double value) {
+            String text = String.format("%.2f", value);
+            text = text.replaceAll("0+$", "");
+            return text.endsWith(".") || text.endsWith(",") ? text.substring(0, text.length() - 1) : text;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.eatgrapes.enigmaticclient.ui;
+
+/**
+ * Easing curves mapping linear progress in [0, 1] to eased progress.
+ */
+public enum Easing {
+    LINEAR {
+        @Override
+        public float apply(float t) {
+            return t;
+        }
+    },
+    EASE_IN_QUAD {
+        @Override
+        public float apply(float t) {
+            return t * t;
+        }
+    },
+    EASE_OUT_QUAD {
+        @Override
+        public float apply(float t) {
+            return t * (2 - t);
+        }
+    },
+    EASE_IN_OUT_QUAD {
+        @Override
+        public float apply(float t) {
+            return t < 0.5f ? 2 * t * t : -1 + (4 - 2 * t) * t;
+        }
+    },
+    EASE_IN_CUBIC {
+        @Override
+        public float apply(float t) {
+            return t * t * t;
+        }
+    },
+    EASE_OUT_CUBIC {
+        @Override
+        public float apply(float t) {
+            float inverse = 1 - t;
+            return 1 - inverse * inverse * inverse;
+        }
+    },
+    // Overshoots slightly before settling
+    EASE_OUT_BACK {
+        @Override
+        public float apply(float t) {
+            float c1 = 1.70158f, c3 = c1 + 1;
+            float u = t - 1;
+            return 1 + c3 * u * u * u + c1 * u * u;
+        }
+    };
+
+    public abstract float apply(float t);
+}
@@ -0,0 +1,171 @@
+package com.github.eatgrapes.enigmaticclient.ui;
+
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.texture.DynamicTexture;
+import org.lwjgl.opengl.GL11;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Plain and bold glyphs of the client font baked into one texture.
+ * <p>
+ * The glyphs are rasterized once with AWT at a multiple of their on-screen size, so they stay sharp at any GUI
+ * scale, and all glyph metrics are in scaled GUI pixels. Baking needs no GL context and may run on any thread;
+ * the texture is uploaded on the first {@link #bind}. Characters outside the baked set draw as '?'.
+ */
+public final class GlyphAtlas {
+    /** Height of one line of text in scaled GUI pixels, the same as the vanilla font. */
+    public static final int LINE_HEIGHT = 9;
+
+    private static final String FONT_NAME = "SansSerif";
+    private static final int FONT_SIZE = 20;
+    private static final int ATLAS_WIDTH = 512;
+    private static final int PADDING = 2;
+    // Symbols used in client messages, in addition to printable Latin-1
+    private static final String EXTRA_CHARS = "•…←↑→↓✔✘➤";
+
+    private final char[] chars;
+    // Character -> glyph index for Latin-1, -1 where not baked
+    private final int[] latinIndex = new int[256];
+    private final int glyphCount;
+    // Per glyph, plain glyphs first and then bold ones
+    private final float[] advance;
+    private final float[] cellWidth;
+    private final float[] u0, v0, u1, v1;
+    private final float cellHeight;
+    // Space left of each glyph inside its cell
+    private final float inset;
+
+    private BufferedImage image;
+    private DynamicTexture texture;
+
+    private static final class Holder {
+        static final GlyphAtlas INSTANCE = new GlyphAtlas();
+    }
+
+    public static GlyphAtlas getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private GlyphAtlas() {
+        long start = System.nanoTime();
+        StringBuilder charset = new StringBuilder();
+        for (char c = 32; c < 127; c++) charset.append(c);
+        for (char c = 160; c < 256; c++) charset.append(c);
+        charset.append(EXTRA_CHARS);
+        chars = charset.toString().toCharArray();
+        glyphCount = chars.length;
+        Arrays.fill(latinIndex, -1);
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] < 256) latinIndex[chars[i]] = i;
+        }
+
+        advance = new float[glyphCount * 2];
+        cellWidth = new float[glyphCount * 2];
+        u0 = new float[glyphCount * 2];
+        v0 = new float[glyphCount * 2];
+        u1 = new float[glyphCount * 2];
+        v1 = new float[glyphCount * 2];
+
+        Font[] fonts = {new Font(FONT_NAME, Font.PLAIN, FONT_SIZE), new Font(FONT_NAME, Font.BOLD, FONT_SIZE)};
+        BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D measure = scratch.createGraphics();
+        FontMetrics[] metrics = {measure.getFontMetrics(fonts[0]), measure.getFontMetrics(fonts[1])};
+        measure.dispose();
+
+        // Pixels per GUI pixel, chosen so a line of the baked font is LINE_HEIGHT tall on screen
+        int pixelHeight = metrics[1].getHeight();
+        float scale = (float) pixelHeight / LINE_HEIGHT;
+        int rowHeight = pixelHeight + PADDING;
+
+        // Lay the glyphs out in rows first to know the atlas height
+        int[] cellX = new int[glyphCount * 2];
+        int[] cellY = new int[glyphCount * 2];
+        int[] cellPixels = new int[glyphCount * 2];
+        int x = 0, y = 0;
+        for (int glyph = 0; glyph < glyphCount * 2; glyph++) {
+            FontMetrics fm = metrics[glyph / glyphCount];
+            int width = fm.charWidth(chars[glyph % glyphCount]) + PADDING;
+            if (x + width > ATLAS_WIDTH) {
+                x = 0;
+                y += rowHeight;
+            }
+            cellX[glyph] = x;
+            cellY[glyph] = y;
+            cellPixels[glyph] = width;
+            x += width;
+        }
+        int atlasHeight = Integer.highestOneBit(y + rowHeight - 1) << 1;
+
+        image = new BufferedImage(ATLAS_WIDTH, atlasHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        graphics.setColor(Color.WHITE);
+        for (int glyph = 0; glyph < glyphCount * 2; glyph++) {
+            int style = glyph / glyphCount;
+            graphics.setFont(fonts[style]);
+            graphics.drawString(String.valueOf(chars[glyph % glyphCount]), cellX[glyph] + PADDING / 2,
+                cellY[glyph] + metrics[style].getAscent());
+
+            advance[glyph] = metrics[style].charWidth(chars[glyph % glyphCount]) / scale;
+            cellWidth[glyph] = cellPixels[glyph] / scale;
+            u0[glyph] = (float) cellX[glyph] / ATLAS_WIDTH;
+            v0[glyph] = (float) cellY[glyph] / atlasHeight;
+            u1[glyph] = (float) (cellX[glyph] + cellPixels[glyph]) / ATLAS_WIDTH;
+            v1[glyph] = (float) (cellY[glyph] + pixelHeight) / atlasHeight;
+        }
+        graphics.dispose();
+        cellHeight = pixelHeight / scale;
+        inset = PADDING / 2 / scale;
+
+        System.out.println("[Enigmatic] Baked " + glyphCount * 2 + " glyphs into a " + ATLAS_WIDTH + "x"
+            + atlasHeight + " atlas in " + (System.nanoTime() - start) / 1_000_000L + " ms");
+    }
+
+    /**
+     * Glyph index of a character in the given style, falling back to '?'.
+     */
+    public int glyph(char c, boolean bold) {
+        int index = c < 256 ? latinIndex[c] : extraIndex(c);
+        if (index < 0) index = latinIndex['?'];
+        return bold ? index + glyphCount : index;
+    }
+
+    private int extraIndex(char c) {
+        for (int i = glyphCount - EXTRA_CHARS.length(); i < glyphCount; i++) {
+            if (chars[i] == c) return i;
+        }
+        return -1;
+    }
+
+    public float getAdvance(int glyph) { return advance[glyph]; }
+    public float getCellWidth(int glyph) { return cellWidth[glyph]; }
+    public float getCellHeight() { return cellHeight; }
+    public float getInset() { return inset; }
+    public float getU0(int glyph) { return u0[glyph]; }
+    public float getV0(int glyph) { return v0[glyph]; }
+    public float getU1(int glyph) { return u1[glyph]; }
+    public float getV1(int glyph) { return v1[glyph]; }
+
+    /**
+     * Bind the atlas texture, uploading it the first time. Render thread only.
+     */
+    public void bind() {
+        if (texture == null) {
+            texture = new DynamicTexture(image);
+            image = null;
+            GlStateManager.bindTexture(texture.getGlTextureId());
+            // Glyphs are drawn smaller than baked, so filter instead of picking texels
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+        }
+        GlStateManager.bindTexture(texture.getGlTextureId());
+    }
+}
@@ -0,0 +1,212 @@
+package com.github.eatgrapes.enigmaticclient.ui;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.ScaledResolution;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.OpenGlHelper;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.WorldRenderer;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.client.shader.Framebuffer;
+import org.lwjgl.opengl.GL11;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Draws {@link HudElement}s into one screen-sized framebuffer and shows it with a single textured quad.
+ * <p>
+ * Each frame, an element is redrawn only if its state hash, bounds or refresh interval say so: its old and new
+ * regions are cleared under a scissor and it draws into the framebuffer. Everything else is reused, so the
+ * overlay costs one blit while nothing changes. The framebuffer holds premultiplied alpha (it starts
+ * transparent and alpha is accumulated separately), which the blit blends accordingly. Resizing the window or
+ * changing the GUI scale redraws everything. The framebuffer is allocated the first time an element is visible.
+ * Without framebuffer support the elements are drawn directly.
+ * Render thread only.
+ */
+public final class HudCompositor {
+    private static final HudCompositor INSTANCE = new HudCompositor();
+
+    private final Minecraft mc = Minecraft.getMinecraft();
+    private final List<HudElement> elements = new ArrayList<>();
+    private Framebuffer framebuffer;
+    private int scaleFactor;
+    private int redraws;
+
+    private HudCompositor() {
+    }
+
+    public static HudCompositor getInstance() {
+        return INSTANCE;
+    }
+
+    public void register(HudElement element) {
+        if (!elements.contains(element)) elements.add(element);
+    }
+
+    public void unregister(HudElement element) {
+        if (elements.remove(element) && element.drawn && framebuffer != null) {
+            prepareTarget();
+            clear(element.drawnX, element.drawnY, element.drawnWidth, element.drawnHeight);
+            restoreTarget();
+        }
+    }
+
+    /**
+     * Bring changed elements up to date and draw the overlay. Called after the vanilla overlay.
+     */
+    public void render() {
+        if (elements.isEmpty()) return;
+        ScaledResolution resolution = new ScaledResolution(mc);
+
+        if (!OpenGlHelper.isFramebufferEnabled()) {
+            for (HudElement element : elements) {
+                if (element.isVisible()) element.render();
+            }
+            return;
+        }
+
+        boolean anyVisible = false;
+        for (HudElement element : elements) {
+            if (element.isVisible()) {
+                anyVisible = true;
+                break;
+            }
+        }
+
+        // The framebuffer is only allocated (or resized) once something will be drawn into it
+        boolean resized = anyVisible && (framebuffer == null || framebuffer.framebufferWidth != mc.displayWidth
+            || framebuffer.framebufferHeight != mc.displayHeight || scaleFactor != resolution.getScaleFactor());
+        if (resized) {
+            if (framebuffer == null) {
+                framebuffer = new Framebuffer(mc.displayWidth, mc.displayHeight, false);
+                framebuffer.setFramebufferColor(0, 0, 0, 0);
+            } else {
+                framebuffer.createBindFramebuffer(mc.displayWidth, mc.displayHeight);
+            }
+            // Both leave framebuffer 0 bound, not the main one
+            mc.getFramebuffer().bindFramebuffer(false);
+            scaleFactor = resolution.getScaleFactor();
+            for (HudElement element : elements) element.drawn = false;
+        }
+        if (framebuffer == null) return;
+
+        if (update(resized)) blit(resolution);
+    }
+
+    /**
+     * @return Whether any element is on the framebuffer.
+     */
+    private boolean update(boolean clearAll) {
+        long now = Minecraft.getSystemTime();
+        boolean bound = false;
+        boolean any = false;
+        for (HudElement element : elements) {
+            boolean visible = element.isVisible();
+            if (!visible) {
+                if (element.drawn) {
+                    if (!bound) bound = prepareTarget();
+                    clear(element.drawnX, element.drawnY, element.drawnWidth, element.drawnHeight);
+                    element.drawn = false;
+                }
+                continue;
+            }
+
+            any = true;
+            long hash = element.stateHash();
+            int x = element.getX(), y = element.getY(), width = element.getWidth(), height = element.getHeight();
+            long interval = element.getRefreshIntervalMillis();
+            boolean stale = !element.drawn || hash != element.drawnHash
+                || x != element.drawnX || y != element.drawnY || width != element.drawnWidth || height != element.drawnHeight
+                || interval > 0 && now - element.drawnAtMillis >= interval;
+            if (!stale) continue;
+
+            if (!bound) {
+                bound = prepareTarget();
+                if (clearAll) {
+                    GlStateManager.clearColor(0, 0, 0, 0);
+                    GlStateManager.clear(GL11.GL_COLOR_BUFFER_BIT);
+                }
+            }
+            if (element.drawn) clear(element.drawnX, element.drawnY, element.drawnWidth, element.drawnHeight);
+            clear(x, y, width, height);
+
+            scissor(x, y, width, height);
+            element.render();
+            GL11.glDisable(GL11.GL_SCISSOR_TEST);
+
+            element.drawnX = x;
+            element.drawnY = y;
+            element.drawnWidth = width;
+            element.drawnHeight = height;
+            element.drawnHash = hash;
+            element.drawnAtMillis = now;
+            element.drawn = true;
+            redraws++;
+        }
+        if (bound) restoreTarget();
+        return any;
+    }
+
+    private boolean prepareTarget() {
+        framebuffer.bindFramebuffer(true);
+        GlStateManager.enableBlend();
+        // Color is blended as usual, alpha accumulates, which leaves premultiplied color in the buffer
+        GlStateManager.tryBlendFuncSeparate(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA, GL11.GL_ONE, GL11.GL_ONE_MINUS_SRC_ALPHA);
+        return true;
+    }
+
+    private void restoreTarget() {
+        mc.getFramebuffer().bindFramebuffer(true);
+        GlStateManager.tryBlendFuncSeparate(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA, GL11.GL_ONE, GL11.GL_ZERO);
+    }
+
+    private void clear(int x, int y, int width, int height) {
+        scissor(x, y, width, height);
+        GlStateManager.clearColor(0, 0, 0, 0);
+        GlStateManager.clear(GL11.GL_COLOR_BUFFER_BIT);
+        GL11.glDisable(GL11.GL_SCISSOR_TEST);
+    }
+
+    /**
+     * Limit drawing to a region given in scaled GUI pixels.
+     */
+    private void scissor(int x, int y, int width, int height) {
+        GL11.glEnable(GL11.GL_SCISSOR_TEST);
+        GL11.glScissor(x * scaleFactor, mc.displayHeight - (y + height) * scaleFactor,
+            Math.max(0, width * scaleFactor), Math.max(0, height * scaleFactor));
+    }
+
+    private void blit(ScaledResolution resolution) {
+        double width = resolution.getScaledWidth_double();
+        double height = resolution.getScaledHeight_double();
+        float u = (float) framebuffer.framebufferWidth / framebuffer.framebufferTextureWidth;
+        float v = (float) framebuffer.framebufferHeight / framebuffer.framebufferTextureHeight;
+
+        GlStateManager.enableTexture2D();
+        GlStateManager.enableBlend();
+        GlStateManager.tryBlendFuncSeparate(GL11.GL_ONE, GL11.GL_ONE_MINUS_SRC_ALPHA, GL11.GL_ONE, GL11.GL_ONE_MINUS_SRC_ALPHA);
+        GlStateManager.color(1, 1, 1, 1);
+        framebuffer.bindFramebufferTexture();
+
+        // Framebuffer rows start at the bottom
+        Tessellator tessellator = Tessellator.getInstance();
+        WorldRenderer renderer = tessellator.getWorldRenderer();
+        renderer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX);
+        renderer.pos(0, height, 0).tex(0, 0).endVertex();
+        renderer.pos(width, height, 0).tex(u, 0).endVertex();
+        renderer.pos(width, 0, 0).tex(u, v).endVertex();
+        renderer.pos(0, 0, 0).tex(0, v).endVertex();
+        tessellator.draw();
+
+        framebuffer.unbindFramebufferTexture();
+        GlStateManager.tryBlendFuncSeparate(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA, GL11.GL_ONE, GL11.GL_ZERO);
+    }
+
+    /**
+     * Element drawings since startup, to compare against frames rendered.
+     */
+    public int getRedraws() {
+        return redraws;
+    }
+}
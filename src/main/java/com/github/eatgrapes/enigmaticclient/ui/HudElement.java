@@ -0,0 +1,43 @@
+package com.github.eatgrapes.enigmaticclient.ui;
+
+/**
+ * A piece of the in-game overlay drawn through the {@link HudCompositor}.
+ * <p>
+ * The compositor keeps the last drawing of every element and only calls {@link #render} again when
+ * {@link #stateHash} changes, the bounds move or {@link #getRefreshIntervalMillis} has passed. An element must
+ * therefore draw only from the state its hash covers, and only inside its bounds. Coordinates are in scaled GUI
+ * pixels.
+ */
+public abstract class HudElement {
+    // Bounds and state of the last drawing, owned by the compositor
+    int drawnX, drawnY, drawnWidth, drawnHeight;
+    long drawnHash;
+    long drawnAtMillis;
+    boolean drawn;
+
+    public abstract int getX();
+    public abstract int getY();
+    public abstract int getWidth();
+    public abstract int getHeight();
+
+    public boolean isVisible() {
+        return true;
+    }
+
+    /**
+     * A value that changes whenever the drawing would change, e.g. a hash of the displayed text.
+     */
+    public abstract long stateHash();
+
+    /**
+     * Redraw at least this often even if the hash is unchanged. 0 redraws only on changes.
+     */
+    public long getRefreshIntervalMillis() {
+        return 0;
+    }
+
+    /**
+     * Draw the element at its position. GL state is set up for blended 2D drawing.
+     */
+    public abstract void render();
+}
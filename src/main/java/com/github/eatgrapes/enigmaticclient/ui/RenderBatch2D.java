@@ -0,0 +1,271 @@
+package com.github.eatgrapes.enigmaticclient.ui;
+
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.WorldRenderer;
+import net.minecraft.client.renderer.WorldVertexBufferUploader;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import org.lwjgl.opengl.GL11;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Collects untextured 2D shapes into one interleaved position/color buffer and draws them with a single call.
+ * <p>
+ * Every shape is emitted as triangles, so rects, gradients, rounded rects and outlines can be mixed freely
+ * between {@link #begin} and {@link #end}. Corner arcs come from precomputed quarter-circle tables, one per
+ * segment count, instead of trigonometry per vertex. All GL state goes through {@link GlStateManager} so its
+ * cache stays correct. Shapes are drawn in the order they were added.
+ * <p>
+ * Text added with {@link #text} goes to a second buffer of cached {@link TextRenderer} layouts and is drawn in
+ * one more call after the shapes, so within a batch text is always on top of shapes.
+ * <p>
+ * Render thread only. {@link #getInstance()} is shared by GUI and HUD code; batches must not be nested.
+ */
+public final class RenderBatch2D {
+    private static final RenderBatch2D INSTANCE = new RenderBatch2D(4096);
+
+    private static final int MAX_SEGMENTS = 32;
+    // cos/sin pairs for i / segments of a quarter turn, indexed by segment count
+    private static final float[][] QUARTER_TABLES = new float[MAX_SEGMENTS + 1][];
+
+    private final WorldRenderer buffer;
+    private final WorldRenderer textBuffer;
+    private final WorldVertexBufferUploader uploader = new WorldVertexBufferUploader();
+    private boolean drawing;
+
+    public RenderBatch2D(int initialVertices) {
+        // Sized in ints; POSITION_COLOR takes four per vertex and the buffer grows as needed
+        this.buffer = new WorldRenderer(initialVertices * 4);
+        this.textBuffer = new WorldRenderer(initialVertices * TextRenderer.VERTEX_INTS);
+    }
+
+    public static RenderBatch2D getInstance() {
+        return INSTANCE;
+    }
+
+    private static float[] quarterTable(int segments) {
+        float[] table = QUARTER_TABLES[segments];
+        if (table == null) {
+            table = new float[(segments + 1) * 2];
+            for (int i = 0; i <= segments; i++) {
+                double angle = Math.PI / 2 * i / segments;
+                table[i * 2] = (float) Math.cos(angle);
+                table[i * 2 + 1] = (float) Math.sin(angle);
+            }
+            QUARTER_TABLES[segments] = table;
+        }
+        return table;
+    }
+
+    /**
+     * Segments per corner for a radius, enough to look round at GUI scale.
+     */
+    private static int segmentsFor(float radius) {
+        return Math.max(1, Math.min(MAX_SEGMENTS, (int) Math.ceil(radius / 1.5f)));
+    }
+
+    public void begin() {
+        if (drawing) throw new IllegalStateException("Batch already started");
+        drawing = true;
+        buffer.begin(GL11.GL_TRIANGLES, DefaultVertexFormats.POSITION_COLOR);
+        textBuffer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX_COLOR);
+    }
+
+    /**
+     * Draw everything added since {@link #begin}.
+     */
+    public void end() {
+        if (!drawing) throw new IllegalStateException("Batch not started");
+        drawing = false;
+        GlStateManager.enableBlend();
+        GlStateManager.disableAlpha();
+        // Alpha accumulates rather than being replaced, so drawing into a translucent target such as the HUD layer
+        // keeps its coverage; on the opaque main framebuffer this is the same as plain alpha blending
+        GlStateManager.tryBlendFuncSeparate(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA, GL11.GL_ONE, GL11.GL_ONE_MINUS_SRC_ALPHA);
+
+        if (buffer.getVertexCount() > 0) {
+            GlStateManager.disableTexture2D();
+            GlStateManager.shadeModel(GL11.GL_SMOOTH);
+            buffer.finishDrawing();
+            uploader.draw(buffer);
+            GlStateManager.shadeModel(GL11.GL_FLAT);
+            GlStateManager.enableTexture2D();
+        } else {
+            buffer.finishDrawing();
+            buffer.reset();
+        }
+
+        if (textBuffer.getVertexCount() > 0) {
+            GlyphAtlas.getInstance().bind();
+            textBuffer.finishDrawing();
+            uploader.draw(textBuffer);
+        } else {
+            textBuffer.finishDrawing();
+            textBuffer.reset();
+        }
+
+        GlStateManager.enableAlpha();
+    }
+
+    // ================================== Text ================================== //
+
+    /**
+     * Add a string at the given position, with formatting codes. Returns its width.
+     */
+    public float text(String text, float x, float y, int argb, boolean shadow) {
+        if (!drawing) throw new IllegalStateException("Batch not started");
+        TextRenderer.Layout layout = TextRenderer.getInstance().layout(text, argb, shadow);
+        int first = textBuffer.getVertexCount();
+        textBuffer.addVertexData(layout.vertices);
+
+        // Layouts are cached at the origin; move the copied positions into place
+        ByteBuffer bytes = textBuffer.getByteBuffer();
+        int stride = TextRenderer.VERTEX_INTS * 4;
+        for (int i = first, end = textBuffer.getVertexCount(); i < end; i++) {
+            int position = i * stride;
+            bytes.putFloat(position, bytes.getFloat(position) + x);
+            bytes.putFloat(position + 4, bytes.getFloat(position + 4) + y);
+        }
+        return layout.width;
+    }
+
+    // ================================== Shapes ================================== //
+
+    public void rect(float x1, float y1, float x2, float y2, int argb) {
+        gradientRect(x1, y1, x2, y2, argb, argb);
+    }
+
+    /**
+     * Rect with a vertical gradient from the top color to the bottom color.
+     */
+    public void gradientRect(float x1, float y1, float x2, float y2, int topArgb, int bottomArgb) {
+        vertex(x1, y1, topArgb);
+        vertex(x1, y2, bottomArgb);
+        vertex(x2, y2, bottomArgb);
+        vertex(x2, y2, bottomArgb);
+        vertex(x2, y1, topArgb);
+        vertex(x1, y1, topArgb);
+    }
+
+    public void roundedRect(float x, float y, float width, float height, float radius, int argb) {
+        radius = clampRadius(width, height, radius);
+        if (radius <= 0) {
+            rect(x, y, x + width, y + height, argb);
+            return;
+        }
+        int segments = segmentsFor(radius);
+        float[] table = quarterTable(segments);
+        float centerX = x + width / 2;
+        float centerY = y + height / 2;
+
+        // The shape is convex, so a fan from its center covers it
+        int points = (segments + 1) * 4;
+        float firstX = 0, firstY = 0, previousX = 0, previousY = 0;
+        for (int i = 0; i < points; i++) {
+            int corner = i / (segments + 1);
+            int step = i % (segments + 1);
+            float pointX = cornerX(x, width, radius, corner) + radius * quadrantCos(table, step, corner);
+            float pointY = cornerY(y, height, radius, corner) + radius * quadrantSin(table, step, corner);
+            if (i == 0) {
+                firstX = pointX;
+                firstY = pointY;
+            } else {
+                triangle(centerX, centerY, previousX, previousY, pointX, pointY, argb);
+            }
+            previousX = pointX;
+            previousY = pointY;
+        }
+        triangle(centerX, centerY, previousX, previousY, firstX, firstY, argb);
+    }
+
+    /**
+     * Outline of a rounded rect, drawn inside its bounds.
+     */
+    public void roundedOutline(float x, float y, float width, float height, float radius, float thickness, int argb) {
+        radius = clampRadius(width, height, radius);
+        int segments = segmentsFor(Math.max(radius, 1));
+        float[] table = quarterTable(segments);
+        float innerRadius = Math.max(0, radius - thickness);
+
+        int points = (segments + 1) * 4;
+        float firstOuterX = 0, firstOuterY = 0, firstInnerX = 0, firstInnerY = 0;
+        float previousOuterX = 0, previousOuterY = 0, previousInnerX = 0, previousInnerY = 0;
+        for (int i = 0; i < points; i++) {
+            int corner = i / (segments + 1);
+            int step = i % (segments + 1);
+            float cos = quadrantCos(table, step, corner);
+            float sin = quadrantSin(table, step, corner);
+            // The inner edge is the same shape inset by the thickness
+            float outerX = cornerX(x, width, radius, corner) + radius * cos;
+            float outerY = cornerY(y, height, radius, corner) + radius * sin;
+            float innerX = cornerX(x + thickness, width - thickness * 2, innerRadius, corner) + innerRadius * cos;
+            float innerY = cornerY(y + thickness, height - thickness * 2, innerRadius, corner) + innerRadius * sin;
+            if (i == 0) {
+                firstOuterX = outerX;
+                firstOuterY = outerY;
+                firstInnerX = innerX;
+                firstInnerY = innerY;
+            } else {
+                quad(previousOuterX, previousOuterY, outerX, outerY, innerX, innerY, previousInnerX, previousInnerY, argb);
+            }
+            previousOuterX = outerX;
+            previousOuterY = outerY;
+            previousInnerX = innerX;
+            previousInnerY = innerY;
+        }
+        quad(previousOuterX, previousOuterY, firstOuterX, firstOuterY, firstInnerX, firstInnerY,
+            previousInnerX, previousInnerY, argb);
+    }
+
+    private static float clampRadius(float width, float height, float radius) {
+        return Math.max(0, Math.min(radius, Math.min(width, height) / 2));
+    }
+
+    // Corners clockwise from the top left; corner c covers angles c * 90 + 180 degrees onwards (y points down)
+
+    private static float cornerX(float x, float width, float radius, int corner) {
+        return corner == 0 || corner == 3 ? x + radius : x + width - radius;
+    }
+
+    private static float cornerY(float y, float height, float radius, int corner) {
+        return corner < 2 ? y + radius : y + height - radius;
+    }
+
+    private static float quadrantCos(float[] table, int step, int corner) {
+        float cos = table[step * 2];
+        float sin = table[step * 2 + 1];
+        switch (corner) {
+            case 0: return -cos;
+            case 1: return sin;
+            case 2: return cos;
+            default: return -sin;
+        }
+    }
+
+    private static float quadrantSin(float[] table, int step, int corner) {
+        float cos = table[step * 2];
+        float sin = table[step * 2 + 1];
+        switch (corner) {
+            case 0: return -sin;
+            case 1: return -cos;
+            case 2: return sin;
+            default: return cos;
+        }
+    }
+
+    private void quad(float x1, float y1, float x2, float y2, float x3, float y3, float x4, float y4, int argb) {
+        triangle(x1, y1, x2, y2, x3, y3, argb);
+        triangle(x3, y3, x4, y4, x1, y1, argb);
+    }
+
+    private void triangle(float x1, float y1, float x2, float y2, float x3, float y3, int argb) {
+        vertex(x1, y1, argb);
+        vertex(x2, y2, argb);
+        vertex(x3, y3, argb);
+    }
+
+    private void vertex(float x, float y, int argb) {
+        if (!drawing) throw new IllegalStateException("Batch not started");
+        buffer.pos(x, y, 0).color(argb >> 16 & 0xFF, argb >> 8 & 0xFF, argb & 0xFF, argb >>> 24).endVertex();
+    }
+}
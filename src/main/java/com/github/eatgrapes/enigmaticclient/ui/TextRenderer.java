@@ -0,0 +1,224 @@
+package com.github.eatgrapes.enigmaticclient.ui;
+
+import java.nio.ByteOrder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lays out client text with the {@link GlyphAtlas} and caches the resulting vertices.
+ * <p>
+ * A layout is the finished vertex data of a string in one style (base color and shadow), at the origin:
+ * formatting codes are already resolved and every glyph is a textured quad in the {@code POSITION_TEX_COLOR}
+ * format. Layouts are kept in an LRU cache, so drawing a label that was drawn recently is one copy into the
+ * batch plus a translation, with no parsing or glyph lookups. Color codes, bold and reset are supported;
+ * other codes are skipped. Render thread only.
+ */
+public final class TextRenderer {
+    private static final TextRenderer INSTANCE = new TextRenderer();
+
+    private static final int CACHE_SIZE = 1024;
+    // Ints per vertex: x, y, z, u, v, color
+    static final int VERTEX_INTS = 6;
+    private static final int[] COLOR_CODES = new int[16];
+    private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    static {
+        // Same palette as the vanilla font
+        for (int i = 0; i < 16; i++) {
+            int bright = (i >> 3 & 1) * 85;
+            int red = (i >> 2 & 1) * 170 + bright;
+            int green = (i >> 1 & 1) * 170 + bright;
+            int blue = (i & 1) * 170 + bright;
+            if (i == 6) red += 85;
+            COLOR_CODES[i] = red << 16 | green << 8 | blue;
+        }
+    }
+
+    private final Map<Key, Layout> cache = new LinkedHashMap<Key, Layout>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Layout> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    // Reused for lookups so a cache hit allocates nothing
+    private final Key probe = new Key();
+    private long hits, misses;
+
+    private TextRenderer() {
+    }
+
+    public static TextRenderer getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The cached layout of a string, building it on a miss.
+     */
+    public Layout layout(String text, int argb, boolean shadow) {
+        argb = opaqueIfUnset(argb);
+        probe.set(text, argb, shadow);
+        Layout layout = cache.get(probe);
+        if (layout != null) {
+            hits++;
+            return layout;
+        }
+        misses++;
+        layout = build(text, argb, shadow);
+        Key key = new Key();
+        key.set(text, argb, shadow);
+        cache.put(key, layout);
+        return layout;
+    }
+
+    /**
+     * Width of a string in scaled GUI pixels, ignoring formatting codes.
+     */
+    public float getWidth(String text) {
+        GlyphAtlas atlas = GlyphAtlas.getInstance();
+        float width = 0;
+        boolean bold = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '§' && i + 1 < text.length()) {
+                int code = Character.toLowerCase(text.charAt(++i));
+                if (code == 'l') bold = true;
+                else if (code == 'r' || Character.digit(code, 16) >= 0) bold = false;
+                continue;
+            }
+            width += atlas.getAdvance(atlas.glyph(c, bold));
+        }
+        return width;
+    }
+
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public int getCacheSize() { return cache.size(); }
+
+    // Vanilla treats a color without alpha as opaque
+    private static int opaqueIfUnset(int argb) {
+        return (argb & 0xFC000000) == 0 ? argb | 0xFF000000 : argb;
+    }
+
+    private static Layout build(String text, int argb, boolean shadow) {
+        GlyphAtlas atlas = GlyphAtlas.getInstance();
+        int glyphs = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '§' && i + 1 < text.length()) i++;
+            else if (text.charAt(i) != ' ') glyphs++;
+        }
+
+        int[] vertices = new int[glyphs * (shadow ? 2 : 1) * 4 * VERTEX_INTS];
+        int offset = 0;
+        float width = 0;
+        // The shadow pass goes first so the text covers it
+        for (int pass = shadow ? 0 : 1; pass < 2; pass++) {
+            boolean isShadow = pass == 0;
+            float shift = isShadow ? 1 : 0;
+            int color = isShadow ? shadowOf(argb) : argb;
+            boolean bold = false;
+            float x = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '§' && i + 1 < text.length()) {
+                    int code = Character.toLowerCase(text.charAt(++i));
+                    int index = Character.digit(code, 16);
+                    if (index >= 0) {
+                        int rgb = COLOR_CODES[index];
+                        color = argb & 0xFF000000 | (isShadow ? (rgb & 0xFCFCFC) >> 2 : rgb);
+                        bold = false;
+                    } else if (code == 'l') {
+                        bold = true;
+                    } else if (code == 'r') {
+                        color = isShadow ? shadowOf(argb) : argb;
+                        bold = false;
+                    }
+                    continue;
+                }
+                int glyph = atlas.glyph(c, bold);
+                if (c != ' ') {
+                    offset = quad(vertices, offset, atlas, glyph, x + shift - atlas.getInset(), shift, color);
+                }
+                x += atlas.getAdvance(glyph);
+            }
+            width = x;
+        }
+        return new Layout(vertices, width);
+    }
+
+    private static int shadowOf(int argb) {
+        return argb & 0xFF000000 | (argb & 0xFCFCFC) >> 2;
+    }
+
+    private static int quad(int[] vertices, int offset, GlyphAtlas atlas, int glyph, float x, float y, int argb) {
+        float x2 = x + atlas.getCellWidth(glyph);
+        float y2 = y + atlas.getCellHeight();
+        int color = packColor(argb);
+        offset = vertex(vertices, offset, x, y, atlas.getU0(glyph), atlas.getV0(glyph), color);
+        offset = vertex(vertices, offset, x, y2, atlas.getU0(glyph), atlas.getV1(glyph), color);
+        offset = vertex(vertices, offset, x2, y2, atlas.getU1(glyph), atlas.getV1(glyph), color);
+        return vertex(vertices, offset, x2, y, atlas.getU1(glyph), atlas.getV0(glyph), color);
+    }
+
+    private static int vertex(int[] vertices, int offset, float x, float y, float u, float v, int color) {
+        vertices[offset] = Float.floatToRawIntBits(x);
+        vertices[offset + 1] = Float.floatToRawIntBits(y);
+        vertices[offset + 2] = Float.floatToRawIntBits(0);
+        vertices[offset + 3] = Float.floatToRawIntBits(u);
+        vertices[offset + 4] = Float.floatToRawIntBits(v);
+        vertices[offset + 5] = color;
+        return offset + VERTEX_INTS;
+    }
+
+    /**
+     * Color as the bytes R, G, B, A in memory order, the way {@code WorldRenderer} stores it.
+     */
+    private static int packColor(int argb) {
+        int red = argb >> 16 & 0xFF, green = argb >> 8 & 0xFF, blue = argb & 0xFF, alpha = argb >>> 24;
+        return LITTLE_ENDIAN
+            ? alpha << 24 | blue << 16 | green << 8 | red
+            : red << 24 | green << 16 | blue << 8 | alpha;
+    }
+
+    /**
+     * Vertices of one string at the origin, never modified once built.
+     */
+    public static final class Layout {
+        final int[] vertices;
+        public final float width;
+
+        Layout(int[] vertices, float width) {
+            this.vertices = vertices;
+            this.width = width;
+        }
+
+        public int getVertexCount() {
+            return vertices.length / VERTEX_INTS;
+        }
+    }
+
+    private static final class Key {
+        private String text;
+        private int argb;
+        private boolean shadow;
+        private int hash;
+
+        void set(String text, int argb, boolean shadow) {
+            this.text = text;
+            this.argb = argb;
+            this.shadow = shadow;
+            this.hash = (text.hashCode() * 31 + argb) * 31 + (shadow ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return argb == other.argb && shadow == other.shadow && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
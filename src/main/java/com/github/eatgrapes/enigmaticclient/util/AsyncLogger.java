@@ -0,0 +1,111 @@
+package com.github.eatgrapes.enigmaticclient.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Level-gated logger that writes from a background thread, for code on latency-sensitive paths such as packet
+ * sending.
+ * <p>
+ * Messages below the threshold are dropped before any formatting; callers building an expensive message should
+ * check {@link #isEnabled} first. Enabled messages are queued and printed by a daemon thread, so the caller
+ * never blocks on console output. If the queue is full the message is dropped and counted.
+ * The threshold defaults to {@link Level#INFO} and can be set with {@code -Denigmatic.logLevel=DEBUG}.
+ */
+public final class AsyncLogger {
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final String PREFIX = "[Enigmatic] ";
+    private static final BlockingQueue<Entry> QUEUE = new ArrayBlockingQueue<>(1024);
+    private static final AtomicLong dropped = new AtomicLong();
+    private static volatile Level threshold = parseLevel(System.getProperty("enigmatic.logLevel"));
+
+    static {
+        Thread writer = new Thread(AsyncLogger::run, "Enigmatic Logger");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private AsyncLogger() {
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold.ordinal();
+    }
+
+    public static void setThreshold(Level level) {
+        threshold = level;
+    }
+
+    public static Level getThreshold() {
+        return threshold;
+    }
+
+    public static void debug(String message) {
+        log(Level.DEBUG, message, null);
+    }
+
+    public static void info(String message) {
+        log(Level.INFO, message, null);
+    }
+
+    public static void warn(String message) {
+        log(Level.WARN, message, null);
+    }
+
+    public static void error(String message, Throwable throwable) {
+        log(Level.ERROR, message, throwable);
+    }
+
+    public static void log(Level level, String message, Throwable throwable) {
+        if (!isEnabled(level)) return;
+        if (!QUEUE.offer(new Entry(level, message, throwable))) dropped.incrementAndGet();
+    }
+
+    /**
+     * Messages lost because the queue was full.
+     */
+    public static long getDropped() {
+        return dropped.get();
+    }
+
+    private static void run() {
+        while (true) {
+            Entry entry;
+            try {
+                entry = QUEUE.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            String line = PREFIX + (entry.level == Level.INFO ? "" : entry.level + " ") + entry.message;
+            if (entry.level.ordinal() >= Level.WARN.ordinal()) {
+                System.err.println(line);
+                if (entry.throwable != null) entry.throwable.printStackTrace();
+            } else {
+                System.out.println(line);
+            }
+        }
+    }
+
+    private static Level parseLevel(String value) {
+        if (value != null) {
+            for (Level level : Level.values()) {
+                if (level.name().equalsIgnoreCase(value)) return level;
+            }
+        }
+        return Level.INFO;
+    }
+
+    private static final class Entry {
+        final Level level;
+        final String message;
+        final Throwable throwable;
+
+        Entry(Level level, String message, Throwable throwable) {
+            this.level = level;
+            this.message = message;
+            this.throwable = throwable;
+        }
+    }
+}